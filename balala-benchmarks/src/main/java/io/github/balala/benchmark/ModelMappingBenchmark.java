@@ -0,0 +1,93 @@
+package io.github.balala.benchmark;
+
+import io.github.balala.Balala;
+import io.github.balala.User;
+import io.github.balala.core.functions.TypeFunction;
+import io.github.balala.core.mapper.RowMapper;
+import io.github.balala.page.Page;
+import io.github.balala.utils.AnimaUtils;
+import io.vertx.core.json.JsonArray;
+import io.vertx.ext.sql.ResultSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converting between models and rows: the params of a model, the column of a lambda,
+ * mapping rows to models and wrapping them in a page.
+ *
+ * @author yizmao
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelMappingBenchmark {
+
+    private static final int ROWS = 100;
+
+    private User            user;
+    private JsonArray       row;
+    private ResultSet       resultSet;
+    private RowMapper<User> mapper;
+    private List<User>      users;
+
+    @Setup
+    public void setup() {
+        Balala.open(new StandInSQLClient());
+        user = new User("jack", "secret");
+        user.setId(1);
+
+        List<String>    columns = Arrays.asList("id", "username", "password");
+        List<JsonArray> rows    = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(new JsonArray().add(i).add("user" + i).add("secret"));
+        }
+        row = rows.get(0);
+        resultSet = new ResultSet(columns, rows, null);
+        mapper = RowMapper.of(User.class, columns);
+        users = mapper.mapAll(resultSet);
+    }
+
+    @Benchmark
+    public JsonArray toColumnValues() {
+        return AnimaUtils.toColumnValues(user, true);
+    }
+
+    @Benchmark
+    public String lambdaColumnName() {
+        return AnimaUtils.getLambdaColumnName((TypeFunction<User, String>) User::getUsername);
+    }
+
+    @Benchmark
+    public User mapRow() {
+        return mapper.map(row);
+    }
+
+    @Benchmark
+    public List<User> mapResultSet() {
+        return RowMapper.of(User.class, resultSet.getColumnNames()).mapAll(resultSet);
+    }
+
+    @Benchmark
+    public Page<User> page() {
+        Page<User> page = new Page<>(1_000, 3, ROWS);
+        page.setRows(users);
+        return page;
+    }
+
+}
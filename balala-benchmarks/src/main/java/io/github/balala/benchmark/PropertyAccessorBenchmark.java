@@ -0,0 +1,105 @@
+package io.github.balala.benchmark;
+
+import io.github.balala.core.accessor.LambdaAccessorFactory;
+import io.github.balala.core.accessor.MethodHandleAccessorFactory;
+import io.github.balala.core.accessor.PropertyAccessor;
+import io.github.balala.core.accessor.ReflectionAccessorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading and writing one model property through each accessor strategy, against the
+ * setAccessible + Field.get path the model-to-params conversion used before.
+ *
+ * @author yizmao
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PropertyAccessorBenchmark {
+
+    private Bean             bean;
+    private Field            field;
+    private PropertyAccessor reflection;
+    private PropertyAccessor methodHandle;
+    private PropertyAccessor lambda;
+
+    @Setup
+    public void setup() throws NoSuchFieldException {
+        bean = new Bean();
+        bean.setUsername("jack");
+        field = Bean.class.getDeclaredField("username");
+        reflection = new ReflectionAccessorFactory().create(field);
+        methodHandle = new MethodHandleAccessorFactory().create(field);
+        lambda = new LambdaAccessorFactory().create(field);
+    }
+
+    @Benchmark
+    public Object legacyFieldGet() throws IllegalAccessException {
+        field.setAccessible(true);
+        return field.get(bean);
+    }
+
+    @Benchmark
+    public Object reflectionGet() {
+        return reflection.get(bean);
+    }
+
+    @Benchmark
+    public Object methodHandleGet() {
+        return methodHandle.get(bean);
+    }
+
+    @Benchmark
+    public Object lambdaGet() {
+        return lambda.get(bean);
+    }
+
+    @Benchmark
+    public Object directGet() {
+        return bean.getUsername();
+    }
+
+    @Benchmark
+    public void reflectionSet() {
+        reflection.set(bean, "rose");
+    }
+
+    @Benchmark
+    public void methodHandleSet() {
+        methodHandle.set(bean, "rose");
+    }
+
+    @Benchmark
+    public void lambdaSet() {
+        lambda.set(bean, "rose");
+    }
+
+    public static class Bean {
+
+        private String username;
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+    }
+
+}
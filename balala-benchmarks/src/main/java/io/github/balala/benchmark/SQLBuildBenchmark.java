@@ -0,0 +1,108 @@
+package io.github.balala.benchmark;
+
+import io.github.balala.Balala;
+import io.github.balala.User;
+import io.github.balala.core.SQLParams;
+import io.github.balala.dialect.Dialect;
+import io.github.balala.dialect.MySQLDialect;
+import io.github.balala.dialect.PostgreSQLDialect;
+import io.github.balala.page.PageRow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the SQL of a select, insert, update and page with each dialect.
+ *
+ * @author yizmao
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SQLBuildBenchmark {
+
+    @Param({"mysql", "postgresql"})
+    private String dialectName;
+
+    private Dialect   dialect;
+    private SQLParams select;
+    private SQLParams insert;
+    private SQLParams update;
+    private SQLParams page;
+
+    @Setup
+    public void setup() {
+        Balala.open(new StandInSQLClient());
+        dialect = "mysql".equals(dialectName) ? new MySQLDialect() : new PostgreSQLDialect();
+
+        select = SQLParams.builder()
+                .modelClass(User.class)
+                .tableName("users")
+                .pkName("id")
+                .conditionSQL(new StringBuilder(" AND age > ? AND username = ?"))
+                .orderBy(" id DESC")
+                .build();
+
+        insert = SQLParams.builder()
+                .modelClass(User.class)
+                .tableName("users")
+                .pkName("id")
+                .build();
+
+        Map<String, Object> columns = new LinkedHashMap<>();
+        columns.put("username", "jack");
+        columns.put("password", "secret");
+        update = SQLParams.builder()
+                .modelClass(User.class)
+                .tableName("users")
+                .pkName("id")
+                .updateColumns(columns)
+                .conditionSQL(new StringBuilder(" AND id = ?"))
+                .build();
+
+        page = SQLParams.builder()
+                .modelClass(User.class)
+                .tableName("users")
+                .pkName("id")
+                .conditionSQL(new StringBuilder(" AND age > ?"))
+                .orderBy(" id DESC")
+                .pageRow(new PageRow(3, 20))
+                .build();
+    }
+
+    @Benchmark
+    public String select() {
+        return dialect.select(select);
+    }
+
+    @Benchmark
+    public String insert() {
+        return dialect.insert(insert);
+    }
+
+    @Benchmark
+    public String update() {
+        return dialect.update(update);
+    }
+
+    @Benchmark
+    public String paginate() {
+        return dialect.paginate(page);
+    }
+
+}
@@ -0,0 +1,60 @@
+package io.github.balala.benchmark;
+
+import io.github.balala.Balala;
+import io.github.balala.User;
+import io.github.balala.core.BatchResult;
+import io.vertx.core.Future;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The client-side cost of saveBatch: chunking, SQL and params of each chunk and the
+ * executor, against a {@link StandInSQLClient} answering at once.
+ *
+ * @author yizmao
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SaveBatchBenchmark {
+
+    @Param({"10", "1000"})
+    private int size;
+
+    private List<User> users;
+
+    @Setup
+    public void setup() {
+        Balala.open(new StandInSQLClient());
+        users = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            users.add(new User("user" + i, "secret"));
+        }
+    }
+
+    @Benchmark
+    public BatchResult saveBatch() {
+        Future<BatchResult> result = Balala.saveBatch(users, User.class);
+        if (result.failed()) {
+            throw new IllegalStateException(result.cause());
+        }
+        return result.result();
+    }
+
+}
@@ -0,0 +1,168 @@
+package io.github.balala.benchmark;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.json.JsonArray;
+import io.vertx.ext.sql.ResultSet;
+import io.vertx.ext.sql.SQLClient;
+import io.vertx.ext.sql.SQLConnection;
+import io.vertx.ext.sql.SQLOptions;
+import io.vertx.ext.sql.SQLRowStream;
+import io.vertx.ext.sql.TransactionIsolation;
+import io.vertx.ext.sql.UpdateResult;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An in-process SQLClient answering at once, on the calling thread: queries with a fixed
+ * result set, updates with one affected row, so that benchmarks measure Balala
+ * and not a database or a pool.
+ *
+ * @author yizmao
+ */
+public class StandInSQLClient implements SQLClient {
+
+    private final Connection connection = new Connection();
+
+    private volatile ResultSet resultSet = new ResultSet(Collections.emptyList(), Collections.emptyList(), null);
+
+    /**
+     * @param resultSet answer of every query
+     */
+    public void setResultSet(ResultSet resultSet) {
+        this.resultSet = resultSet;
+    }
+
+    @Override
+    public SQLClient getConnection(Handler<AsyncResult<SQLConnection>> handler) {
+        handler.handle(Future.succeededFuture(connection));
+        return this;
+    }
+
+    @Override
+    public void close(Handler<AsyncResult<Void>> handler) {
+        handler.handle(Future.succeededFuture());
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private class Connection implements SQLConnection {
+
+        @Override
+        public SQLConnection setOptions(SQLOptions options) {
+            return this;
+        }
+
+        @Override
+        public SQLConnection setAutoCommit(boolean autoCommit, Handler<AsyncResult<Void>> handler) {
+            handler.handle(Future.succeededFuture());
+            return this;
+        }
+
+        @Override
+        public SQLConnection execute(String sql, Handler<AsyncResult<Void>> handler) {
+            handler.handle(Future.succeededFuture());
+            return this;
+        }
+
+        @Override
+        public SQLConnection query(String sql, Handler<AsyncResult<ResultSet>> handler) {
+            return this.queryWithParams(sql, null, handler);
+        }
+
+        @Override
+        public SQLConnection queryStream(String sql, Handler<AsyncResult<SQLRowStream>> handler) {
+            return this.queryStreamWithParams(sql, null, handler);
+        }
+
+        @Override
+        public SQLConnection queryWithParams(String sql, JsonArray params, Handler<AsyncResult<ResultSet>> handler) {
+            handler.handle(Future.succeededFuture(resultSet));
+            return this;
+        }
+
+        @Override
+        public SQLConnection queryStreamWithParams(String sql, JsonArray params, Handler<AsyncResult<SQLRowStream>> handler) {
+            handler.handle(Future.failedFuture(new UnsupportedOperationException("queryStream")));
+            return this;
+        }
+
+        @Override
+        public SQLConnection update(String sql, Handler<AsyncResult<UpdateResult>> handler) {
+            return this.updateWithParams(sql, new JsonArray(), handler);
+        }
+
+        @Override
+        public SQLConnection updateWithParams(String sql, JsonArray params, Handler<AsyncResult<UpdateResult>> handler) {
+            handler.handle(Future.succeededFuture(new UpdateResult(1, new JsonArray().add(1))));
+            return this;
+        }
+
+        @Override
+        public SQLConnection call(String sql, Handler<AsyncResult<ResultSet>> handler) {
+            return this.query(sql, handler);
+        }
+
+        @Override
+        public SQLConnection callWithParams(String sql, JsonArray params, JsonArray outputs, Handler<AsyncResult<ResultSet>> handler) {
+            return this.queryWithParams(sql, params, handler);
+        }
+
+        @Override
+        public void close(Handler<AsyncResult<Void>> handler) {
+            handler.handle(Future.succeededFuture());
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public SQLConnection commit(Handler<AsyncResult<Void>> handler) {
+            handler.handle(Future.succeededFuture());
+            return this;
+        }
+
+        @Override
+        public SQLConnection rollback(Handler<AsyncResult<Void>> handler) {
+            handler.handle(Future.succeededFuture());
+            return this;
+        }
+
+        @Override
+        public SQLConnection batch(List<String> sqlStatements, Handler<AsyncResult<List<Integer>>> handler) {
+            handler.handle(Future.succeededFuture(new ArrayList<>(Collections.nCopies(sqlStatements.size(), 1))));
+            return this;
+        }
+
+        @Override
+        public SQLConnection batchWithParams(String sql, List<JsonArray> args, Handler<AsyncResult<List<Integer>>> handler) {
+            handler.handle(Future.succeededFuture(new ArrayList<>(Collections.nCopies(args.size(), 1))));
+            return this;
+        }
+
+        @Override
+        public SQLConnection batchCallableWithParams(String sql, List<JsonArray> inArgs, List<JsonArray> outArgs,
+                                                     Handler<AsyncResult<List<Integer>>> handler) {
+            return this.batchWithParams(sql, inArgs, handler);
+        }
+
+        @Override
+        public SQLConnection setTransactionIsolation(TransactionIsolation isolation, Handler<AsyncResult<Void>> handler) {
+            handler.handle(Future.succeededFuture());
+            return this;
+        }
+
+        @Override
+        public SQLConnection getTransactionIsolation(Handler<AsyncResult<TransactionIsolation>> handler) {
+            handler.handle(Future.succeededFuture(TransactionIsolation.READ_COMMITTED));
+            return this;
+        }
+    }
+
+}
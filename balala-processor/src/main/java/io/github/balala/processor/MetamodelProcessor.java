@@ -0,0 +1,196 @@
+package io.github.balala.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Metamodel Processor
+ * <p>
+ * Generates, next to every subclass of {@code io.github.balala.Model}, a metamodel class of the
+ * same name with a trailing underscore, holding one {@code ModelColumn} constant per column:
+ * <pre>
+ * public final class User_ {
+ *     public static final ModelColumn&lt;User, String&gt; USERNAME = new ModelColumn&lt;&gt;(User.class, "username", "username", String.class);
+ * }
+ * </pre>
+ * Columns follow the rules of the runtime: the fields declared by the model, except static
+ * fields and fields annotated with {@code @Ignore}, named by {@code @Column} or else in snake case.
+ *
+ * @author yizmao
+ */
+@SupportedAnnotationTypes("*")
+public class MetamodelProcessor extends AbstractProcessor {
+
+    private static final String MODEL        = "io.github.balala.Model";
+    private static final String MODEL_COLUMN = "io.github.balala.core.ModelColumn";
+    private static final String COLUMN       = "io.github.balala.annotation.Column";
+    private static final String IGNORE       = "io.github.balala.annotation.Ignore";
+
+    private final Set<String> generated = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement model = processingEnv.getElementUtils().getTypeElement(MODEL);
+        if (null == model) {
+            return false;
+        }
+        TypeMirror modelType = processingEnv.getTypeUtils().erasure(model.asType());
+        for (TypeElement type : ElementFilter.typesIn(roundEnv.getRootElements())) {
+            this.process(type, modelType);
+        }
+        return false;
+    }
+
+    private void process(TypeElement type, TypeMirror modelType) {
+        if (type.getKind() == ElementKind.CLASS && !type.getQualifiedName().contentEquals(MODEL)
+                && processingEnv.getTypeUtils().isSubtype(processingEnv.getTypeUtils().erasure(type.asType()), modelType)
+                && generated.add(type.getQualifiedName().toString())) {
+            try {
+                this.generate(type);
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Cannot write the metamodel of " + type + ": " + e, type);
+            }
+        }
+        for (TypeElement nested : ElementFilter.typesIn(type.getEnclosedElements())) {
+            if (nested.getModifiers().contains(Modifier.STATIC)) {
+                this.process(nested, modelType);
+            }
+        }
+    }
+
+    private void generate(TypeElement type) throws IOException {
+        String packageName   = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String metamodelName = metamodelName(type);
+        String modelName     = processingEnv.getTypeUtils().erasure(type.asType()).toString();
+        String qualifiedName = packageName.isEmpty() ? metamodelName : packageName + "." + metamodelName;
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("import ").append(MODEL_COLUMN).append(";\n\n");
+        source.append("/**\n * Columns of {@link ").append(modelName).append("}, generated by balala-processor.\n */\n");
+        source.append("public final class ").append(metamodelName).append(" {\n\n");
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            if (isIgnore(field)) {
+                continue;
+            }
+            String fieldName = field.getSimpleName().toString();
+            String fieldType = this.boxedErasure(field.asType());
+            source.append("    public static final ModelColumn<").append(modelName).append(", ").append(fieldType).append("> ")
+                    .append(constantName(fieldName)).append(" =\n            new ModelColumn<>(")
+                    .append(modelName).append(".class, \"").append(fieldName).append("\", \"")
+                    .append(columnName(field).replace("\\", "\\\\").replace("\"", "\\\"")).append("\", ").append(fieldType).append(".class);\n\n");
+        }
+        source.append("    private ").append(metamodelName).append("() {\n    }\n\n}\n");
+
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, type);
+        try (Writer writer = file.openWriter()) {
+            writer.write(source.toString());
+        }
+    }
+
+    /**
+     * User -> User_, Order.Line -> Order_Line_
+     */
+    private static String metamodelName(TypeElement type) {
+        StringBuilder name    = new StringBuilder(type.getSimpleName()).append('_');
+        Element       element = type.getEnclosingElement();
+        while (!(element instanceof PackageElement)) {
+            name.insert(0, element.getSimpleName() + "_");
+            element = element.getEnclosingElement();
+        }
+        return name.toString();
+    }
+
+    private String boxedErasure(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return processingEnv.getTypeUtils().boxedClass((PrimitiveType) type).getQualifiedName().toString();
+        }
+        return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    private static boolean isIgnore(VariableElement field) {
+        return field.getModifiers().contains(Modifier.STATIC)
+                || "serialVersionUID".contentEquals(field.getSimpleName())
+                || null != annotation(field, IGNORE);
+    }
+
+    /**
+     * The column name the runtime gives a field, see {@code AnimaUtils.toColumnName(Field)}.
+     */
+    private static String columnName(VariableElement field) {
+        AnnotationMirror column = annotation(field, COLUMN);
+        if (null != column) {
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : column.getElementValues().entrySet()) {
+                if (entry.getKey().getSimpleName().contentEquals("name")) {
+                    return entry.getValue().getValue().toString();
+                }
+            }
+            return "";
+        }
+        String        propertyName = field.getSimpleName().toString();
+        StringBuilder result       = new StringBuilder();
+        result.append(propertyName.substring(0, 1).toLowerCase());
+        for (int i = 1; i < propertyName.length(); i++) {
+            String s = propertyName.substring(i, i + 1);
+            if (s.equals(s.toUpperCase())) {
+                result.append('_').append(s.toLowerCase());
+            } else {
+                result.append(s);
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * userName -> USER_NAME
+     */
+    private static String constantName(String fieldName) {
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < fieldName.length(); i++) {
+            char c = fieldName.charAt(i);
+            if (Character.isUpperCase(c) && i > 0 && !Character.isUpperCase(fieldName.charAt(i - 1))) {
+                name.append('_');
+            }
+            name.append(Character.toUpperCase(c));
+        }
+        return name.toString();
+    }
+
+    private static AnnotationMirror annotation(Element element, String name) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(name)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+}
@@ -1,30 +1,65 @@
 package io.github.balala;
 
+import io.github.balala.annotation.Table;
 import io.github.balala.core.BalalaUpdate;
+import io.github.balala.core.BatchResult;
+import io.github.balala.core.ReplicaRouter;
 import io.github.balala.core.ResultKey;
+import io.github.balala.core.SQLExecutor;
 import io.github.balala.core.dml.Delete;
 import io.github.balala.core.dml.Select;
 import io.github.balala.core.dml.Update;
 import io.github.balala.core.functions.TypeFunction;
+import io.github.balala.core.metrics.BalalaMetrics;
+import io.github.balala.core.metrics.ExecutionListener;
 import io.github.balala.dialect.Dialect;
 import io.github.balala.dialect.MySQLDialect;
+import io.github.balala.enums.CoalesceMode;
 import io.github.balala.enums.ErrorCode;
 import io.github.balala.exception.AnimaException;
 import io.github.balala.utils.AnimaUtils;
+import io.vertx.core.Context;
 import io.vertx.core.Future;
+import io.vertx.core.Vertx;
 import io.vertx.ext.sql.SQLClient;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
+ * A database: its client, dialect, table prefix and settings.
+ * <p>
+ * Several named instances can live in one JVM. {@link #me()} is the instance bound to the
+ * current Vert.x context with {@link #bind(String)}, or the default one; {@link #use(String)}
+ * selects an instance for a single statement.
+ *
  * @author yizmao
  * @date 18-6-11 上午11:03
  */
 public class Balala {
+
+    /**
+     * Name of the instance created by {@link #open(SQLClient)}
+     */
+    public static final String DEFAULT = "default";
+
+    private static final String CONTEXT_KEY = "balala.instance";
+
+    private static final Map<String, Balala> INSTANCES = new ConcurrentHashMap<>(4);
+
+    /**
+     * Instance name
+     */
+    @Getter
+    private final String name;
+
     /**
      * sqlClient instance
      */
@@ -43,19 +78,112 @@ public class Balala {
      * Global table prefix
      */
     @Getter
-    @Setter
     private String tablePrefix;
 
+    /**
+     * Table names by model, they depend on the prefix of this instance
+     */
+    private final Map<Class<?>, String> tableNames = new ConcurrentHashMap<>(8);
+
     @Getter
     private boolean useSQLLimit = true;
 
-    private static Balala instance;
+    /**
+     * Rows fetched per round-trip by streaming queries
+     */
+    @Getter
+    @Setter
+    private int fetchSize = 1000;
+
+    /**
+     * Max rows of one multi-row insert sent by saveBatch
+     */
+    @Getter
+    @Setter
+    private int batchSize = 500;
+
+    /**
+     * Max insert chunks of one saveBatch in flight at once, each on its own pooled connection
+     */
+    @Getter
+    @Setter
+    private int batchConcurrency = 4;
+
+    /**
+     * Whether identical concurrent reads share one query, off by default
+     */
+    @Getter
+    @Setter
+    private CoalesceMode coalesceMode = CoalesceMode.NONE;
+
+    /**
+     * Whether plain byId lookups issued on one context are batched into IN queries, off by default
+     */
+    @Getter
+    @Setter
+    private boolean batchLoad;
+
+    /**
+     * Milliseconds a batch of byId lookups waits for more ids, 0 sends it on the next tick
+     */
+    @Getter
+    @Setter
+    private long batchLoadWindow;
+
+    /**
+     * Max ids of one batched IN query, a full batch is sent at once
+     */
+    @Getter
+    @Setter
+    private int batchLoadSize = 100;
+
+    /**
+     * Routes reads to the replicas, if any
+     */
+    @Getter
+    private final ReplicaRouter router = new ReplicaRouter();
+
+    /**
+     * Runs the statements: deadlines, bounded wait queue and connection timings
+     */
+    @Getter
+    private final SQLExecutor executor;
+
+    private Balala(String name) {
+        this.name = name;
+        this.executor = new SQLExecutor(name);
+    }
 
+    /**
+     * The instance bound to the current context, or the default one.
+     *
+     * @return Balala
+     */
     public static Balala me() {
-        if (null == instance.sqlClient) {
+        Context context = Vertx.currentContext();
+        String  name    = null != context ? context.get(CONTEXT_KEY) : null;
+        Balala  balala  = INSTANCES.get(null != name ? name : DEFAULT);
+        if (null == balala) {
+            throw new AnimaException(ErrorCode.BALALA_IS_NULL);
+        }
+        if (null == balala.sqlClient) {
             throw new AnimaException(ErrorCode.SQLCLIENT_IS_NULL);
         }
-        return instance;
+        return balala;
+    }
+
+    /**
+     * Get a named instance.
+     *
+     * @param name instance name
+     * @return Balala
+     */
+    public static Balala get(String name) {
+        Balala balala = INSTANCES.get(name);
+        if (null == balala) {
+            throw new AnimaException("Balala instance [" + name + "] is not open");
+        }
+        return balala;
     }
 
     /**
@@ -65,12 +193,106 @@ public class Balala {
      * @return Balala
      */
     public static Balala open(SQLClient sqlClient) {
-        Balala anima = new Balala();
+        return open(DEFAULT, sqlClient);
+    }
+
+    /**
+     * Create a named instance, replacing the previous instance of that name.
+     *
+     * @param name      instance name
+     * @param sqlClient SQLClientImpl instance
+     * @return Balala
+     */
+    public static Balala open(String name, SQLClient sqlClient) {
+        Balala anima = new Balala(name);
         anima.setSqlClient(sqlClient);
-        instance = anima;
+        INSTANCES.put(name, anima);
         return anima;
     }
 
+    /**
+     * Select an instance for one statement, like {@code Balala.use("shard3").select().from(User.class)}.
+     *
+     * @param name instance name
+     * @return statements of the instance
+     */
+    public static BalalaScope use(String name) {
+        return new BalalaScope(get(name));
+    }
+
+    /**
+     * Run a unit of work in a new transaction of {@link #me()}, like
+     * {@code Balala.tx(tx -> tx.save(user).compose(key -> tx.save(order)))}.
+     * Only the statements made through {@code tx} run in it.
+     *
+     * @param work statements of the transaction, the future they complete commits or rolls back
+     * @param <R>
+     * @return result of the work, once committed
+     */
+    public static <R> Future<R> tx(Function<Transaction, Future<R>> work) {
+        return Transaction.run(me(), work);
+    }
+
+    /**
+     * Make a named instance the {@link #me()} of the current Vert.x context.
+     *
+     * @param name instance name
+     */
+    public static void bind(String name) {
+        Context context = Vertx.currentContext();
+        if (null == context) {
+            throw new AnimaException("Balala.bind must be called on a Vert.x context");
+        }
+        get(name);
+        context.put(CONTEXT_KEY, name);
+    }
+
+    /**
+     * Let the current Vert.x context use the default instance again.
+     */
+    public static void unbind() {
+        Context context = Vertx.currentContext();
+        if (null != context) {
+            context.remove(CONTEXT_KEY);
+        }
+    }
+
+    /**
+     * Table name of a model in this instance.
+     *
+     * @param modelClass model class
+     * @return table name, with the prefix of this instance
+     */
+    public String getTableName(Class<?> modelClass) {
+        String tableName = tableNames.get(modelClass);
+        if (null != tableName) {
+            return tableName;
+        }
+        return tableNames.computeIfAbsent(modelClass, type -> {
+            Table table = type.getAnnotation(Table.class);
+            if (null != table && AnimaUtils.isNotEmpty(table.name())) {
+                return table.name();
+            }
+            return AnimaUtils.toTableName(type.getSimpleName(), tablePrefix);
+        });
+    }
+
+    /**
+     * Key of an entry in a cache shared by all instances: the key itself in the default
+     * instance, prefixed with the instance name in the others.
+     *
+     * @param key cache key
+     * @return scoped key
+     */
+    public Object scope(Object key) {
+        return DEFAULT.equals(name) ? key : name + ":" + key;
+    }
+
+    public void setTablePrefix(String tablePrefix) {
+        this.tablePrefix = tablePrefix;
+        this.tableNames.clear();
+    }
+
 
     /**
      * Open a query statement.
@@ -112,7 +334,29 @@ public class Balala {
      * @return Anima
      */
     public Balala tablePrefix(String tablePrefix) {
-        this.tablePrefix = tablePrefix;
+        this.setTablePrefix(tablePrefix);
+        return this;
+    }
+
+    /**
+     * Set the replicas serving reads, writes still go to the sqlClient.
+     *
+     * @param replicas replica clients
+     * @return Balala
+     */
+    public Balala replicas(SQLClient... replicas) {
+        this.router.setReplicas(Arrays.asList(replicas));
+        return this;
+    }
+
+    /**
+     * Report every statement of this instance to a listener, like {@link BalalaMetrics}.
+     *
+     * @param listener execution listener
+     * @return Balala
+     */
+    public Balala listener(ExecutionListener listener) {
+        this.executor.addListener(listener);
         return this;
     }
 
@@ -150,9 +394,45 @@ public class Balala {
      *
      * @param <T>
      * @param models model list
+     * @param type   model class
+     * @return per-chunk results and generated keys
      */
-    public static <T extends Model> Future<Integer> saveBatch(List<T> models,Class type) {
+    public static <T extends Model> Future<BatchResult> saveBatch(List<T> models, Class type) {
+        return new BalalaUpdate<T>().saveBatch(models, type);
+    }
+
+    /**
+     * Batch insert models, updating the rows that already exist.
+     *
+     * @param <T>
+     * @param models          model list
+     * @param conflictColumns unique columns identifying an existing row, the primary key when empty
+     * @param updateColumns   columns overwritten on conflict, all other columns when empty
+     * @return per-chunk results and generated keys
+     */
+    public static <T extends Model> Future<BatchResult> upsertBatch(List<T> models, List<String> conflictColumns, List<String> updateColumns) {
+        if (AnimaUtils.isEmpty(models)) {
+            return Future.succeededFuture(new BatchResult(new ArrayList<>()));
+        }
+        return new BalalaUpdate<>(modelClass(models)).upsertBatch(models, conflictColumns, updateColumns);
+    }
+
+    /**
+     * Batch update models by primary key.
+     *
+     * @param <T>
+     * @param models model list, each with a primary key
+     * @return per-chunk results
+     */
+    public static <T extends Model> Future<BatchResult> updateBatch(List<T> models) {
+        if (AnimaUtils.isEmpty(models)) {
+            return Future.succeededFuture(new BatchResult(new ArrayList<>()));
+        }
+        return new BalalaUpdate<>(modelClass(models)).updateBatch(models);
+    }
 
-        return new BalalaUpdate<T>().saveBatch(models,type);
+    @SuppressWarnings("unchecked")
+    private static <T extends Model> Class<T> modelClass(List<T> models) {
+        return (Class<T>) models.get(0).getClass();
     }
 }
@@ -0,0 +1,110 @@
+package io.github.balala;
+
+import io.github.balala.core.BalalaUpdate;
+import io.github.balala.core.BatchResult;
+import io.github.balala.core.ResultKey;
+import io.github.balala.core.dml.Delete;
+import io.github.balala.core.dml.Select;
+import io.github.balala.core.dml.Update;
+import io.github.balala.core.functions.TypeFunction;
+import io.github.balala.utils.AnimaUtils;
+import io.vertx.core.Future;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Statements of one named instance, the same as the static ones of {@link Balala}
+ * but run on that instance whatever the current context is bound to.
+ *
+ * @author yizmao
+ * @see Balala#use(String)
+ */
+public class BalalaScope {
+
+    @Getter
+    private final Balala balala;
+
+    BalalaScope(Balala balala) {
+        this.balala = balala;
+    }
+
+    public Select select() {
+        return new Select(balala, this.transaction(), null);
+    }
+
+    public Select select(String columns) {
+        return new Select(balala, this.transaction(), columns);
+    }
+
+    @SafeVarargs
+    public final <T extends Model, R> Select select(TypeFunction<T, R>... functions) {
+        return select(Arrays.stream(functions).map(AnimaUtils::getLambdaColumnName).collect(Collectors.joining(", ")));
+    }
+
+    public Update update() {
+        return new Update(balala, this.transaction());
+    }
+
+    public Delete delete() {
+        return new Delete(balala, this.transaction());
+    }
+
+    public <T extends Model> Future<ResultKey> save(T model) {
+        return this.updater(modelClass(model)).save(model);
+    }
+
+    public <T extends Model> Future<BatchResult> saveBatch(List<T> models, Class<T> type) {
+        return this.updater(type).saveBatch(models);
+    }
+
+    public <T extends Model> Future<BatchResult> upsertBatch(List<T> models, List<String> conflictColumns, List<String> updateColumns) {
+        if (AnimaUtils.isEmpty(models)) {
+            return Future.succeededFuture(new BatchResult(new ArrayList<>()));
+        }
+        return this.updater(modelClass(models.get(0))).upsertBatch(models, conflictColumns, updateColumns);
+    }
+
+    public <T extends Model> Future<BatchResult> updateBatch(List<T> models) {
+        if (AnimaUtils.isEmpty(models)) {
+            return Future.succeededFuture(new BatchResult(new ArrayList<>()));
+        }
+        return this.updater(modelClass(models.get(0))).updateBatch(models);
+    }
+
+    /**
+     * Run a unit of work in a transaction of this instance.
+     *
+     * @param work statements of the transaction, the future they complete commits or rolls back
+     * @param <R>
+     * @return result of the work, once committed
+     */
+    public <R> Future<R> tx(Function<Transaction, Future<R>> work) {
+        return Transaction.run(balala, work);
+    }
+
+    /**
+     * Transaction the statements of this scope run in, null for pooled connections.
+     */
+    Transaction transaction() {
+        return null;
+    }
+
+    private <T extends Model> BalalaUpdate<T> updater(Class<T> modelClass) {
+        Transaction tx = this.transaction();
+        if (null != tx) {
+            return new BalalaUpdate<T>().using(tx).parse(modelClass);
+        }
+        return new BalalaUpdate<T>().using(balala).parse(modelClass);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Model> Class<T> modelClass(T model) {
+        return (Class<T>) model.getClass();
+    }
+
+}
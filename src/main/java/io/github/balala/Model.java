@@ -15,16 +15,17 @@ import java.io.Serializable;
 public class Model {
 
     /**
-     * The update object for the current model.
+     * The update object for the current model, created on first write
+     * so that mapping query rows to models stays cheap.
      */
-    private BalalaUpdate<? extends Model> update = new BalalaUpdate<>(this.getClass());
+    private BalalaUpdate<? extends Model> update;
 
     /**
      * insert
      * @return Primary key
      */
     public Future<ResultKey> save(){
-        return this.update.save(this);
+        return this.updater().save(this);
     }
 
     /**
@@ -32,7 +33,7 @@ public class Model {
      * @return number of rows affected after execution
      */
     public Future<Integer> update(){
-        return this.update.updateByModel(this);
+        return this.updater().updateByModel(this);
     }
 
     /**
@@ -48,7 +49,7 @@ public class Model {
      * @return number of rows affected after execution
      */
     public Future<Integer> delete(){
-        return this.update.deleteByModel(this);
+        return this.updater().deleteByModel(this);
     }
 
     /**
@@ -59,7 +60,7 @@ public class Model {
      * @return AnimaQuery
      */
     public BalalaUpdate<? extends Model> set(String column, Object value) {
-        return update.set(column, value);
+        return updater().set(column, value);
     }
 
     /**
@@ -72,7 +73,7 @@ public class Model {
      * @return AnimaQuery
      */
     public <T extends Model, R> BalalaUpdate<? extends Model> set(TypeFunction<T, R> function, Object value) {
-        return update.set(function, value);
+        return updater().set(function, value);
     }
 
     /**
@@ -83,7 +84,7 @@ public class Model {
      * @return AnimaQuery
      */
     public BalalaUpdate<? extends Model> where(String statement, Object value) {
-        return update.where(statement, value);
+        return updater().where(statement, value);
     }
 
     /**
@@ -96,6 +97,13 @@ public class Model {
      * @return AnimaQuery
      */
     public <T extends Model, R> BalalaUpdate<? extends Model> where(TypeFunction<T, R> function, Object value) {
-        return update.where(function, value);
+        return updater().where(function, value);
+    }
+
+    private BalalaUpdate<? extends Model> updater() {
+        if (null == update) {
+            update = new BalalaUpdate<>(this.getClass());
+        }
+        return update;
     }
 }
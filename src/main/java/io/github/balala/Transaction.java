@@ -0,0 +1,134 @@
+package io.github.balala;
+
+import io.github.balala.core.SQLExecutor;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.ext.sql.SQLConnection;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Transaction
+ * <p>
+ * One pooled connection with autocommit off, borrowed through the {@link SQLExecutor}
+ * of the instance like any statement. The statements made through the handle run on the connection:
+ * {@code tx.select()}, {@code tx.update()}, {@code tx.delete()} and {@code tx.save(model)}; any other
+ * statement, made meanwhile by the same request or another one, runs on a connection of its own.
+ * The transaction commits when the future of the work succeeds and rolls back when it fails.
+ * <p>
+ * {@code tx.tx(work)} joins the transaction, while {@link Balala#tx(Function)} always opens a new one.
+ *
+ * @author yizmao
+ * @see Balala#tx(Function)
+ */
+@Slf4j
+public class Transaction extends BalalaScope {
+
+    @Getter
+    private final SQLConnection connection;
+
+    private final Map<Object, Runnable> afterCommit = new LinkedHashMap<>();
+
+    private Transaction(Balala balala, SQLConnection connection) {
+        super(balala);
+        this.connection = connection;
+    }
+
+    /**
+     * Run a unit of work in this transaction, committed or rolled back with it.
+     *
+     * @param work statements of the transaction
+     * @param <R>
+     * @return result of the work
+     */
+    @Override
+    public <R> Future<R> tx(Function<Transaction, Future<R>> work) {
+        return apply(work, this);
+    }
+
+    @Override
+    Transaction transaction() {
+        return this;
+    }
+
+    /**
+     * Run once the transaction committed, like evicting the cached rows it wrote so that
+     * reads made meanwhile do not keep the old values.
+     *
+     * @param action action
+     */
+    public void afterCommit(Runnable action) {
+        afterCommit.put(action, action);
+    }
+
+    /**
+     * Run once the transaction committed, once per key however many times it is registered,
+     * like invalidating a table written by many statements.
+     *
+     * @param key    identity of the action
+     * @param action action, ignored when one is registered under the key
+     */
+    public void afterCommit(String key, Runnable action) {
+        afterCommit.putIfAbsent(key, action);
+    }
+
+    static <R> Future<R> run(Balala balala, Function<Transaction, Future<R>> work) {
+        SQLExecutor executor = balala.getExecutor();
+        Future<R>   future   = Future.future();
+        executor.connection(balala.getSqlClient(), 0).setHandler(res -> {
+            if (res.failed()) {
+                future.fail(res.cause());
+                return;
+            }
+            SQLConnection connection = res.result();
+            connection.setAutoCommit(false, begin -> {
+                if (begin.failed()) {
+                    executor.giveBack(connection);
+                    future.fail(begin.cause());
+                    return;
+                }
+                Transaction tx = new Transaction(balala, connection);
+                apply(work, tx).setHandler(result -> tx.complete(result.succeeded(), end -> {
+                    executor.giveBack(connection);
+                    if (result.failed()) {
+                        future.fail(result.cause());
+                    } else if (end.failed()) {
+                        future.fail(end.cause());
+                    } else {
+                        tx.afterCommit.values().forEach(Runnable::run);
+                        future.complete(result.result());
+                    }
+                }));
+            });
+        });
+        return future;
+    }
+
+    private void complete(boolean commit, Handler<AsyncResult<Void>> handler) {
+        if (commit) {
+            connection.commit(handler);
+            return;
+        }
+        connection.rollback(res -> {
+            if (res.failed()) {
+                log.warn("Rollback fail", res.cause());
+            }
+            handler.handle(res);
+        });
+    }
+
+    private static <R> Future<R> apply(Function<Transaction, Future<R>> work, Transaction tx) {
+        try {
+            Future<R> result = work.apply(tx);
+            return null != result ? result : Future.succeededFuture();
+        } catch (Exception e) {
+            return Future.failedFuture(e);
+        }
+    }
+
+}
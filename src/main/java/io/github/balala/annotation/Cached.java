@@ -0,0 +1,31 @@
+package io.github.balala.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keep the rows of the model in the entity cache, which serves byId and byIds lookups.
+ *
+ * @author yizmao
+ * @see io.github.balala.core.cache.EntityCache
+ */
+@Target({ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Cached {
+
+    /**
+     * Max cached rows, the least recently used is evicted first
+     */
+    int maxSize() default 10_000;
+
+    /**
+     * Time to live of a cached row, 0 never expires
+     */
+    long ttl() default 300;
+
+    TimeUnit unit() default TimeUnit.SECONDS;
+
+}
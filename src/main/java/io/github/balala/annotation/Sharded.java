@@ -0,0 +1,37 @@
+package io.github.balala.annotation;
+
+import io.github.balala.core.shard.HashShardStrategy;
+import io.github.balala.core.shard.ShardStrategy;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Spread the rows of the model over several Balala instances by a shard key.
+ *
+ * @author yizmao
+ * @see io.github.balala.core.shard.Sharding
+ */
+@Target({ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Sharded {
+
+    /**
+     * Shard key column, the primary key when empty. A model whose primary key the database
+     * generates needs another column, since its key is unknown until the row is inserted.
+     */
+    String column() default "";
+
+    /**
+     * Names of the Balala instances holding the shards, they share the table name and dialect
+     */
+    String[] shards();
+
+    /**
+     * Strategy with a no-arg constructor, replaced at runtime by Sharding.setStrategy
+     */
+    Class<? extends ShardStrategy> strategy() default HashShardStrategy.class;
+
+}
@@ -3,113 +3,144 @@ package io.github.balala.core;
 
 import io.github.balala.Balala;
 import io.github.balala.annotation.Table;
+import io.github.balala.core.mapper.RowMapper;
 import io.github.balala.exception.AnimaException;
 import io.github.balala.utils.AnimaUtils;
 
 import java.lang.invoke.SerializedLambda;
 import java.lang.reflect.Field;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 import static io.github.balala.utils.AnimaUtils.methodToFieldName;
 
 
 /**
  * Anima Cache
+ * <p>
+ * All caches are filled lazily from any event-loop thread. Every value is computed
+ * at most once per key, and a hit is a plain lock-free {@link ConcurrentHashMap#get}.
  *
  * @author biezhi
  * @date 2018/3/19
  */
 public final class AnimaCache {
 
-    static final Map<Class<?>, String>         CACHE_TABLE_NAME     = new HashMap<>(8);
-    static final Map<Class<?>, String>         CACHE_PK_COLUMN_NAME = new HashMap<>(8);
-    static final Map<Class<?>, String>         CACHE_PK_FIELD_NAME  = new HashMap<>(8);
-    static final Map<SerializedLambda, String> CACHE_LAMBDA_NAME    = new HashMap<>(8);
-    static final Map<SerializedLambda, String> CACHE_FIELD_NAME     = new HashMap<>(8);
-    static final Map<String, Field>            CACHE_MODEL_FIELD    = new HashMap<>(8);
+    static final Map<Class<?>, String>         CACHE_PK_COLUMN_NAME = new ConcurrentHashMap<>(8);
+    static final Map<Class<?>, String>         CACHE_PK_FIELD_NAME  = new ConcurrentHashMap<>(8);
+    static final Map<String, String>           CACHE_LAMBDA_NAME    = new ConcurrentHashMap<>(8);
+    static final Map<String, String>           CACHE_FIELD_NAME     = new ConcurrentHashMap<>(8);
+    static final Map<String, Field>            CACHE_MODEL_FIELD    = new ConcurrentHashMap<>(8);
+    static final Map<Class<?>, ModelMeta>      CACHE_MODEL_META     = new ConcurrentHashMap<>(8);
 
+    static final Map<Class<?>, Map<List<String>, RowMapper<?>>> CACHE_ROW_MAPPER = new ConcurrentHashMap<>(8);
 
-    public static String getTableName(Class<?> modelClass) {
-        String tableName = CACHE_TABLE_NAME.get(modelClass);
-        if (null != tableName) {
-            return tableName;
+    private AnimaCache() {
+    }
+
+    /**
+     * Eagerly resolve the metadata of the given models, so that the first
+     * requests served by each event loop do not pay for reflection. Needs no
+     * open instance, table names are left to {@link #warmUp(Balala, Class[])}.
+     *
+     * @param modelClasses model classes
+     */
+    public static void warmUp(Class<?>... modelClasses) {
+        for (Class<?> modelClass : modelClasses) {
+            getPKField(modelClass);
+            getModelMeta(modelClass);
         }
-        Table table = modelClass.getAnnotation(Table.class);
-        if (null != table && AnimaUtils.isNotEmpty(table.name())) {
-            tableName = table.name();
-            CACHE_TABLE_NAME.put(modelClass, tableName);
-            return tableName;
+    }
+
+    /**
+     * Eagerly resolve the metadata of the given models and their table names in an instance.
+     *
+     * @param balala       instance the models are queried on
+     * @param modelClasses model classes
+     */
+    public static void warmUp(Balala balala, Class<?>... modelClasses) {
+        warmUp(modelClasses);
+        for (Class<?> modelClass : modelClasses) {
+            balala.getTableName(modelClass);
         }
-        tableName = AnimaUtils.toTableName(modelClass.getSimpleName(), Balala.me().getTablePrefix());
-        CACHE_TABLE_NAME.put(modelClass, tableName);
-        return tableName;
+    }
+
+    /**
+     * Table name in the current instance, see {@link Balala#getTableName(Class)}. Fails
+     * before an instance is open, prefer the method of the instance.
+     */
+    public static String getTableName(Class<?> modelClass) {
+        return Balala.me().getTableName(modelClass);
     }
 
     public static String getPKColumn(Class<?> modelClass) {
-        String pkColumn = CACHE_PK_COLUMN_NAME.get(modelClass);
-        if (null != pkColumn) {
-            return pkColumn;
-        }
-        Table table = modelClass.getAnnotation(Table.class);
-        pkColumn = null != table ? table.pk() : "id";
-        CACHE_PK_COLUMN_NAME.put(modelClass, pkColumn);
-        return pkColumn;
+        return get(CACHE_PK_COLUMN_NAME, modelClass, type -> {
+            Table table = type.getAnnotation(Table.class);
+            return null != table ? table.pk() : "id";
+        });
     }
 
     public static String getPKField(Class<?> modelClass) {
-        String pkField = CACHE_PK_FIELD_NAME.get(modelClass);
-        if (null != pkField) {
-            return pkField;
-        }
-        String pkColumn = AnimaCache.getPKColumn(modelClass);
-        pkField = AnimaUtils.toFieldName(pkColumn);
-        CACHE_PK_FIELD_NAME.put(modelClass, pkField);
-        return pkField;
+        return get(CACHE_PK_FIELD_NAME, modelClass, type -> AnimaUtils.toFieldName(getPKColumn(type)));
     }
 
+    /**
+     * Column of the getter a lambda refers to, cached by getter: every {@link SerializedLambda}
+     * is a new instance and equal to itself only.
+     */
     public static String getLambdaColumnName(SerializedLambda serializedLambda) {
-        String name = CACHE_LAMBDA_NAME.get(serializedLambda);
-        if (null != name) {
-            return name;
-        }
         String className  = serializedLambda.getImplClass().replace("/", ".");
         String methodName = serializedLambda.getImplMethodName();
-        String fieldName  = methodToFieldName(methodName);
-        try {
-            Field field = Class.forName(className).getDeclaredField(fieldName);
-            name = AnimaUtils.toColumnName(field);
-            CACHE_LAMBDA_NAME.put(serializedLambda, name);
-            return name;
-        } catch (NoSuchFieldException | ClassNotFoundException e) {
-            throw new AnimaException(e);
-        }
+        return get(CACHE_LAMBDA_NAME, className + "::" + methodName, key -> {
+            String fieldName = methodToFieldName(methodName);
+            try {
+                Field field = Class.forName(className).getDeclaredField(fieldName);
+                return AnimaUtils.toColumnName(field);
+            } catch (NoSuchFieldException | ClassNotFoundException e) {
+                throw new AnimaException(e);
+            }
+        });
     }
 
     public static String getLambdaFieldName(SerializedLambda serializedLambda) {
-        String name = CACHE_FIELD_NAME.get(serializedLambda);
-        if (null != name) {
-            return name;
-        }
         String methodName = serializedLambda.getImplMethodName();
-        String fieldName  = methodToFieldName(methodName);
-        CACHE_FIELD_NAME.put(serializedLambda, fieldName);
-        return fieldName;
+        return get(CACHE_FIELD_NAME, methodName, key -> methodToFieldName(methodName));
     }
 
     public static Field getField(Class<?> clazz, String fieldName) {
-        String key   = clazz.getName() + ":" + fieldName;
-        Field  field = CACHE_MODEL_FIELD.get(key);
-        if (null != field) {
-            return field;
-        }
-        try {
-            field = clazz.getDeclaredField(fieldName);
-            field.setAccessible(true);
-            CACHE_MODEL_FIELD.put(key, field);
-            return field;
-        } catch (Exception e) {
-            throw new AnimaException(e);
+        return get(CACHE_MODEL_FIELD, clazz.getName() + ":" + fieldName, key -> {
+            try {
+                Field field = clazz.getDeclaredField(fieldName);
+                field.setAccessible(true);
+                return field;
+            } catch (Exception e) {
+                throw new AnimaException(e);
+            }
+        });
+    }
+
+    public static ModelMeta getModelMeta(Class<?> modelClass) {
+        return get(CACHE_MODEL_META, modelClass, type -> new ModelMeta(type, getPKColumn(type)));
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> RowMapper<T> getRowMapper(Class<T> type, List<String> columnNames) {
+        Map<List<String>, RowMapper<?>> mappers = get(CACHE_ROW_MAPPER, type, key -> new ConcurrentHashMap<>(4));
+        return (RowMapper<T>) get(mappers, columnNames, columns -> new RowMapper<>(type, new ArrayList<>(columns)));
+    }
+
+    /**
+     * Read first, so that hits never take the bin lock computeIfAbsent uses on JDK 8.
+     */
+    private static <K, V> V get(Map<K, V> cache, K key, Function<? super K, ? extends V> loader) {
+        V value = cache.get(key);
+        if (null != value) {
+            return value;
         }
+        return cache.computeIfAbsent(key, loader);
     }
+
 }
@@ -2,22 +2,36 @@ package io.github.balala.core;
 
 import io.github.balala.Balala;
 import io.github.balala.Model;
+import io.github.balala.Transaction;
+import io.github.balala.core.cache.EntityCache;
+import io.github.balala.core.cache.QueryCache;
 import io.github.balala.core.functions.TypeFunction;
+import io.github.balala.core.mapper.RowMapper;
+import io.github.balala.core.shard.Sharding;
+import io.github.balala.dialect.Dialect;
+import io.github.balala.enums.CountMode;
 import io.github.balala.enums.DMLType;
 import io.github.balala.enums.ErrorCode;
 import io.github.balala.enums.OrderBy;
 import io.github.balala.exception.AnimaException;
 import io.github.balala.page.Page;
 import io.github.balala.page.PageRow;
+import io.github.balala.page.SeekPage;
 import io.github.balala.utils.AnimaUtils;
+import io.vertx.core.CompositeFuture;
 import io.vertx.core.Future;
+import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
+import io.vertx.ext.sql.ResultSet;
 import io.vertx.ext.sql.SQLClient;
+import io.vertx.ext.sql.SQLConnection;
+import io.vertx.ext.sql.SQLOptions;
+import io.vertx.ext.sql.SQLRowStream;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
-import java.lang.reflect.Field;
+import java.time.Duration;
 import java.util.*;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -84,6 +98,46 @@ public class BalalaQuery<T extends Model> {
      */
     private DMLType dmlType;
 
+    /**
+     * Milliseconds results are kept in the query cache, 0 when not cached.
+     */
+    private long cacheTtl;
+
+    /**
+     * Milliseconds the query may wait for a connection and run, 0 for the default of the instance.
+     */
+    private long timeout;
+
+    /**
+     * Read-your-writes session of the request, null when the query may read from a replica.
+     */
+    private ReplicaRouter.Session session;
+
+    /**
+     * Instance the query runs on, {@link Balala#me()} when not set.
+     */
+    private Balala balala;
+
+    /**
+     * Transaction the query runs in, on its connection, null for a pooled connection.
+     */
+    private Transaction tx;
+
+    /**
+     * Shard holding the rows of a sharded model, when a condition fixes the shard key.
+     */
+    private Balala shard;
+
+    /**
+     * Whether the condition has an OR, which no shard key equality can narrow.
+     */
+    private boolean disjunction;
+
+    /**
+     * Order of the statement last built, used to merge the rows of every shard.
+     */
+    private String shardOrder;
+
 
     public BalalaQuery(DMLType dmlType) {
         this.dmlType = dmlType;
@@ -95,11 +149,36 @@ public class BalalaQuery<T extends Model> {
 
     public BalalaQuery<T> parse(Class<T> modelClass) {
         this.modelClass = modelClass;
-        this.tableName = AnimaCache.getTableName(modelClass);
+        this.tableName = balala().getTableName(modelClass);
         this.primaryKeyColumn = AnimaCache.getPKColumn(modelClass);
         return this;
     }
 
+    /**
+     * Run the query on the given instance instead of {@link Balala#me()}.
+     *
+     * @param balala Balala instance
+     * @return BalalaQuery
+     */
+    public BalalaQuery<T> using(Balala balala) {
+        this.balala = balala;
+        if (null != modelClass) {
+            this.tableName = balala.getTableName(modelClass);
+        }
+        return this;
+    }
+
+    /**
+     * Run the query in a transaction, on its connection.
+     *
+     * @param tx transaction
+     * @return BalalaQuery
+     */
+    public BalalaQuery<T> using(Transaction tx) {
+        this.tx = tx;
+        return this.using(tx.getBalala());
+    }
+
     /**
      * Sets the query to specify the column.
      *
@@ -114,6 +193,44 @@ public class BalalaQuery<T extends Model> {
         return this;
     }
 
+    /**
+     * Keep the results of this query in the query cache, until the ttl passes or the table
+     * is written through Balala.
+     *
+     * @param ttl time to live of the results
+     * @return BalalaQuery
+     * @see QueryCache
+     */
+    public BalalaQuery<T> cached(Duration ttl) {
+        this.cacheTtl = ttl.toMillis();
+        return this;
+    }
+
+    /**
+     * Fail the query when it has not completed within the timeout, waiting for a
+     * connection included; the database cancels it too.
+     *
+     * @param timeout deadline of the query
+     * @return BalalaQuery
+     * @see SQLExecutor
+     */
+    public BalalaQuery<T> timeout(Duration timeout) {
+        this.timeout = timeout.toMillis();
+        return this;
+    }
+
+    /**
+     * Read from the primary while the writes made with the session may not have reached the replicas.
+     *
+     * @param session read-your-writes session of the request
+     * @return BalalaQuery
+     * @see ReplicaRouter
+     */
+    public BalalaQuery<T> session(ReplicaRouter.Session session) {
+        this.session = session;
+        return this;
+    }
+
     /**
      * where condition
      *
@@ -138,6 +255,7 @@ public class BalalaQuery<T extends Model> {
             conditionSQL.append(" = ?");
         }
         paramValues.add(value);
+        this.shardBy(statement, value);
         return this;
     }
 
@@ -154,6 +272,18 @@ public class BalalaQuery<T extends Model> {
         return this;
     }
 
+    /**
+     * Set the column name with a metamodel column
+     *
+     * @param column   metamodel column, like User_.AGE
+     * @return BalalaQuery
+     */
+    public BalalaQuery<T> where(ModelColumn<T, ?> column) {
+        String columnName = column.getColumnName();
+        conditionSQL.append(" AND ").append(columnName);
+        return this;
+    }
+
     /**
      * Set the column name using lambda, at the same time setting the value, the SQL generated is "column = ?"
      *
@@ -167,6 +297,22 @@ public class BalalaQuery<T extends Model> {
         String columnName = AnimaUtils.getLambdaColumnName(function);
         conditionSQL.append(" AND ").append(columnName).append(" = ?");
         paramValues.add(value);
+        this.shardBy(columnName, value);
+        return this;
+    }
+
+    /**
+     * Set the column name with a metamodel column, at the same time setting the value, the SQL generated is "column = ?"
+     *
+     * @param column   metamodel column, like User_.AGE
+     * @param value    column value
+     * @return BalalaQuery
+     */
+    public BalalaQuery<T> where(ModelColumn<? extends Model, ?> column, Object value) {
+        String columnName = column.getColumnName();
+        conditionSQL.append(" AND ").append(columnName).append(" = ?");
+        paramValues.add(value);
+        this.shardBy(columnName, value);
         return this;
     }
 
@@ -178,17 +324,15 @@ public class BalalaQuery<T extends Model> {
      * @return BalalaQuery
      */
     public BalalaQuery<T> where(T model) {
-        Field[] declaredFields = model.getClass().getDeclaredFields();
-        for (Field declaredField : declaredFields) {
-            Object value = AnimaUtils.getFieldValue(declaredField, model);
+        for (ColumnMeta column : AnimaCache.getModelMeta(model.getClass()).getColumns()) {
+            Object value = column.getValue(model);
             if (null == value) {
                 continue;
             }
-            if (declaredField.getType().equals(String.class) && AnimaUtils.isEmpty(value.toString())) {
+            if (column.getFieldType().equals(String.class) && AnimaUtils.isEmpty(value.toString())) {
                 continue;
             }
-            String columnName = AnimaUtils.toColumnName(declaredField);
-            this.where(columnName, value);
+            this.where(column.getColumnName(), column.toColumnValue(value));
         }
         return this;
     }
@@ -237,6 +381,16 @@ public class BalalaQuery<T extends Model> {
         return this.where(function);
     }
 
+    /**
+     * generate AND statement with a metamodel column
+     *
+     * @param column   metamodel column, like User_.AGE
+     * @return BalalaQuery
+     */
+    public BalalaQuery<T> and(ModelColumn<T, ?> column) {
+        return this.where(column);
+    }
+
     /**
      * generate AND statement with lambda, simultaneous setting value
      *
@@ -249,6 +403,17 @@ public class BalalaQuery<T extends Model> {
         return this.where(function, value);
     }
 
+    /**
+     * generate AND statement with a metamodel column, simultaneous setting value
+     *
+     * @param column   metamodel column, like User_.AGE
+     * @param value    column value
+     * @return BalalaQuery
+     */
+    public BalalaQuery<T> and(ModelColumn<T, ?> column, Object value) {
+        return this.where(column, value);
+    }
+
     /**
      * generate OR statement, simultaneous setting value
      *
@@ -263,6 +428,8 @@ public class BalalaQuery<T extends Model> {
         }
         conditionSQL.append(')');
         paramValues.add(value);
+        this.disjunction = true;
+        this.shard = null;
         return this;
     }
 
@@ -292,6 +459,18 @@ public class BalalaQuery<T extends Model> {
         return this.notEq(columnName, value);
     }
 
+    /**
+     * generate "!=" statement with a metamodel column, simultaneous setting value
+     *
+     * @param column   metamodel column, like User_.AGE
+     * @param value    column value
+     * @return BalalaQuery
+     */
+    public BalalaQuery<T> notEq(ModelColumn<T, ?> column, Object value) {
+        String columnName = column.getColumnName();
+        return this.notEq(columnName, value);
+    }
+
     /**
      * generate "!=" statement, simultaneous setting value
      *
@@ -327,6 +506,17 @@ public class BalalaQuery<T extends Model> {
         return this.notEmpty(columnName);
     }
 
+    /**
+     * generate "!= ''" statement with a metamodel column
+     *
+     * @param column   metamodel column, like User_.AGE
+     * @return BalalaQuery
+     */
+    public BalalaQuery<T> notEmpty(ModelColumn<T, ?> column) {
+        String columnName = column.getColumnName();
+        return this.notEmpty(columnName);
+    }
+
     /**
      * generate "!= ''" statement
      *
@@ -374,6 +564,18 @@ public class BalalaQuery<T extends Model> {
         return this.like(columnName, value);
     }
 
+    /**
+     * generate like statement with a metamodel column, simultaneous setting value
+     *
+     * @param column   metamodel column, like User_.AGE
+     * @param value    column value
+     * @return BalalaQuery
+     */
+    public BalalaQuery<T> like(ModelColumn<T, ?> column, Object value) {
+        String columnName = column.getColumnName();
+        return this.like(columnName, value);
+    }
+
     /**
      * generate like statement, simultaneous setting value
      *
@@ -415,6 +617,19 @@ public class BalalaQuery<T extends Model> {
         return this.between(columnName, a, b);
     }
 
+    /**
+     * generate between statement with a metamodel column, simultaneous setting value
+     *
+     * @param column   metamodel column, like User_.AGE
+     * @param a        first range value
+     * @param b        second range value
+     * @return BalalaQuery
+     */
+    public BalalaQuery<T> between(ModelColumn<T, ?> column, Object a, Object b) {
+        String columnName = column.getColumnName();
+        return this.between(columnName, a, b);
+    }
+
     /**
      * generate between values
      *
@@ -455,6 +670,18 @@ public class BalalaQuery<T extends Model> {
         return this.gt(columnName, value);
     }
 
+    /**
+     * generate ">" statement with a metamodel column, simultaneous setting value
+     *
+     * @param column   metamodel column, like User_.AGE
+     * @param value    column value
+     * @return BalalaQuery
+     */
+    public BalalaQuery<T> gt(ModelColumn<T, ?> column, Object value) {
+        String columnName = column.getColumnName();
+        return this.gt(columnName, value);
+    }
+
     /**
      * generate ">" statement value
      *
@@ -492,6 +719,18 @@ public class BalalaQuery<T extends Model> {
         return this.gte(columnName, value);
     }
 
+    /**
+     * generate ">=" statement with a metamodel column, simultaneous setting value
+     *
+     * @param column   metamodel column, like User_.AGE
+     * @param value    column value
+     * @return BalalaQuery
+     */
+    public BalalaQuery<T> gte(ModelColumn<? extends Model, ?> column, Object value) {
+        String columnName = column.getColumnName();
+        return this.gte(columnName, value);
+    }
+
     /**
      * generate "<" statement value
      *
@@ -517,6 +756,18 @@ public class BalalaQuery<T extends Model> {
         return this.lt(columnName, value);
     }
 
+    /**
+     * generate "<" statement with a metamodel column, simultaneous setting value
+     *
+     * @param column   metamodel column, like User_.AGE
+     * @param value    column value
+     * @return BalalaQuery
+     */
+    public BalalaQuery<T> lt(ModelColumn<? extends Model, ?> column, Object value) {
+        String columnName = column.getColumnName();
+        return this.lt(columnName, value);
+    }
+
     /**
      * generate "<=" statement value
      *
@@ -542,6 +793,18 @@ public class BalalaQuery<T extends Model> {
         return this.lte(columnName, value);
     }
 
+    /**
+     * generate "<=" statement with a metamodel column, simultaneous setting value
+     *
+     * @param column   metamodel column, like User_.AGE
+     * @param value    column value
+     * @return BalalaQuery
+     */
+    public BalalaQuery<T> lte(ModelColumn<? extends Model, ?> column, Object value) {
+        String columnName = column.getColumnName();
+        return this.lte(columnName, value);
+    }
+
     /**
      * generate ">=" statement, simultaneous setting value
      *
@@ -652,6 +915,18 @@ public class BalalaQuery<T extends Model> {
         return this.in(columnName, values);
     }
 
+    /**
+     * generate "in" statement with a metamodel column, simultaneous setting value
+     *
+     * @param column   metamodel column, like User_.AGE
+     * @param values   in param values
+     * @return BalalaQuery
+     */
+    public BalalaQuery<T> in(ModelColumn<T, ?> column, Object... values) {
+        String columnName = column.getColumnName();
+        return this.in(columnName, values);
+    }
+
     /**
      * generate "in" statement with lambda, simultaneous setting value
      *
@@ -665,6 +940,18 @@ public class BalalaQuery<T extends Model> {
         return this.in(columnName, values);
     }
 
+    /**
+     * generate "in" statement with a metamodel column, simultaneous setting value
+     *
+     * @param column   metamodel column, like User_.AGE
+     * @param values   in param values
+     * @return BalalaQuery
+     */
+    public <S> BalalaQuery<T> in(ModelColumn<T, ?> column, List<S> values) {
+        String columnName = column.getColumnName();
+        return this.in(columnName, values);
+    }
+
     /**
      * generate order by statement
      *
@@ -707,6 +994,18 @@ public class BalalaQuery<T extends Model> {
         return order(columnName, orderBy);
     }
 
+    /**
+     * generate order by statement with a metamodel column
+     *
+     * @param column   metamodel column, like User_.AGE
+     * @param orderBy  order by @see OrderBy
+     * @return BalalaQuery
+     */
+    public BalalaQuery<T> order(ModelColumn<T, ?> column, OrderBy orderBy) {
+        String columnName = column.getColumnName();
+        return order(columnName, orderBy);
+    }
+
 
     /**
      * query model by primary key
@@ -716,11 +1015,51 @@ public class BalalaQuery<T extends Model> {
      */
     public Future<JsonObject> byId(Object id) {
         this.beforeCheck();
+        this.shardBy(primaryKeyColumn, id);
+        boolean cached = this.isCachedLookup();
+        if (cached) {
+            JsonObject row = EntityCache.get(modelClass, cacheOwner().scope(id));
+            if (null != row) {
+                this.clean();
+                return Future.succeededFuture(row);
+            }
+        }
+        Future<JsonObject> future;
+        if (this.isBatchLoadable()) {
+            future = this.batchLoad(id).map(rs -> rs.getNumRows() > 0 ? rs.getRows().get(0) : null);
+        } else {
+            this.where(primaryKeyColumn, id);
+            String sql = this.buildSelectSQL(false);
+            future = this.queryOne(sql, paramValues);
+        }
+        if (!cached) {
+            return future;
+        }
+        Object key = cacheOwner().scope(id);
+        return future.map(row -> {
+            EntityCache.put(modelClass, key, row);
+            return row;
+        });
+    }
+
+    /**
+     * query model by primary key and map it to the model type
+     *
+     * @param id primary key value
+     * @return model instance, null if not found
+     */
+    public Future<T> findById(Object id) {
+        this.beforeCheck();
+        this.shardBy(primaryKeyColumn, id);
+        if (this.isCachedLookup()) {
+            return this.byId(id).map(row -> null == row ? null : this.toModel(row));
+        }
+        if (this.isBatchLoadable()) {
+            return this.batchLoad(id).map(rs -> RowMapper.of(modelClass, rs.getColumnNames()).mapOne(rs));
+        }
         this.where(primaryKeyColumn, id);
-        String sql   = this.buildSelectSQL(false);
-        System.out.println(sql);
-        Future<JsonObject> model = this.queryOne(sql, paramValues);
-        return model;
+        String sql = this.buildSelectSQL(false);
+        return this.queryOne(modelClass, sql, paramValues);
     }
 
     /**
@@ -730,8 +1069,47 @@ public class BalalaQuery<T extends Model> {
      * @return models
      */
     public Future<List<JsonObject>> byIds(Object... ids) {
+        this.beforeCheck();
+        if (!this.isCachedLookup()) {
+            this.in(this.primaryKeyColumn, ids);
+            return this.all();
+        }
+        List<JsonObject> rows    = new ArrayList<>(ids.length);
+        List<Object>     missing = new ArrayList<>();
+        for (Object id : ids) {
+            JsonObject row = EntityCache.get(modelClass, cacheOwner().scope(id));
+            if (null != row) {
+                rows.add(row);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (missing.isEmpty()) {
+            this.clean();
+            return Future.succeededFuture(rows);
+        }
+        this.in(this.primaryKeyColumn, missing);
+        Balala owner = cacheOwner();
+        return this.all().map(fetched -> {
+            fetched.forEach(row -> EntityCache.put(modelClass, owner.scope(EntityCache.idOf(modelClass, row)), row));
+            rows.addAll(fetched);
+            return rows;
+        });
+    }
+
+    /**
+     * query models by primary keys and map them to the model type
+     *
+     * @param ids primary key values
+     * @return models
+     */
+    public Future<List<T>> findByIds(Object... ids) {
+        this.beforeCheck();
+        if (this.isCachedLookup()) {
+            return this.byIds(ids).map(rows -> rows.stream().map(this::toModel).collect(Collectors.toList()));
+        }
         this.in(this.primaryKeyColumn, ids);
-        return this.all();
+        return this.findAll();
     }
 
     /**
@@ -741,32 +1119,42 @@ public class BalalaQuery<T extends Model> {
      */
     public Future<JsonObject> one() {
         this.beforeCheck();
-        String sql   = this.buildSelectSQL(true);
-        Future<JsonObject>      model = this.queryOne( sql, paramValues);
-        return model;
+        String sql = this.buildSelectSQL(true);
+        return this.queryOne(sql, paramValues);
     }
 
     /**
-     * query and find all model
+     * query and find one model, mapped to the model type
      *
-     * @return model list
+     * @return one model, null if not found
      */
-   /* public Future<List<T>> all() {
+    public Future<T> findOne() {
         this.beforeCheck();
-        String  sql    = this.buildSelectSQL(true);
-        Future<List<T>> models = this.queryList(modelClass, sql, paramValues);
-        return models;
-    }*/
+        String sql = this.buildSelectSQL(true);
+        return this.queryOne(modelClass, sql, paramValues);
+    }
 
+    /**
+     * query and find all model
+     *
+     * @return model list
+     */
     public Future<List<JsonObject>> all() {
         this.beforeCheck();
-        String  sql    = this.buildSelectSQL(true);
-        Future<List<JsonObject>> models = this.queryList(sql, paramValues);
-        return models;
+        String sql = this.buildSelectSQL(true);
+        return this.queryList(sql, paramValues);
     }
 
-
-
+    /**
+     * query and find all model, mapped to the model type
+     *
+     * @return model list
+     */
+    public Future<List<T>> findAll() {
+        this.beforeCheck();
+        String sql = this.buildSelectSQL(true);
+        return this.queryList(modelClass, sql, paramValues);
+    }
 
     /**
      * Querying a model
@@ -775,52 +1163,21 @@ public class BalalaQuery<T extends Model> {
      * @param sql    sql statement
      * @param params params
      * @param <S>
-     * @return S
-     */
- /*   public <S> Future<S> queryOne(Class<S> type, String sql,JsonArray params) {
-        Future<S> future = Future.future();
-        SQLClient sqlClient = getSqlClient();
-        sqlClient.queryWithParams(sql,params,res -> {
-            System.out.println(sql);
-            if (res.succeeded()){
-                List<JsonObject> rows = res.result().getRows();
-                if (rows!=null && rows.size()>0){
-                    future.complete(rows.get(0).mapTo(type));
-                }
-            }else {
-                future.fail(res.cause());
-            }
-        });
-        this.clean();
-        return future;
-    }*/
+     * @return S, null if not found
+     */
+    public <S> Future<S> queryOne(Class<S> type, String sql, JsonArray params) {
+        return this.query(this.limitOne(sql), params, rs -> RowMapper.of(type, rs.getColumnNames()).mapOne(rs));
+    }
 
     /**
      * Querying a model
      *
      * @param sql    sql statement
      * @param params params
-     * @return S
+     * @return S, null if not found
      */
     public Future<JsonObject> queryOne(String sql, JsonArray params) {
-        Future<JsonObject> future = Future.future();
-        if (Balala.me().isUseSQLLimit()) {
-            sql += " LIMIT 1";
-        }
-        SQLClient sqlClient = getSqlClient();
-
-        sqlClient.queryWithParams(sql,params,res -> {
-            if (res.succeeded()){
-                List<JsonObject> rows = res.result().getRows();
-                if (rows!=null && rows.size()>0){
-                    future.complete(rows.get(0));
-                }
-            }else {
-                future.fail(res.cause());
-            }
-            this.clean();
-        });
-        return future;
+        return this.query(this.limitOne(sql), params, rs -> rs.getNumRows() > 0 ? rs.getRows().get(0) : null);
     }
 
     /**
@@ -832,24 +1189,9 @@ public class BalalaQuery<T extends Model> {
      * @param <S>
      * @return List<S>
      */
-   /* public <S> Future<List<S>> queryList(Class<S> type, String sql, JsonArray params) {
-        Future<List<S>> future = Future.future();
-        SQLClient sqlClient = getSqlClient();
-        sqlClient.queryWithParams(sql,params,res -> {
-            if (res.succeeded()){
-                List<JsonObject> rows = res.result().getRows();
-                if (rows!=null && rows.size()>0){
-                    List<S> result = new LinkedList<>();
-                    rows.forEach(entries -> {result.add(entries.mapTo(type));});
-                    future.complete(result);
-                }
-            }else {
-                future.fail(res.cause());
-            }
-        });
-        this.clean();
-        return future;
-    }*/
+    public <S> Future<List<S>> queryList(Class<S> type, String sql, JsonArray params) {
+        return this.query(sql, params, rs -> RowMapper.of(type, rs.getColumnNames()).mapAll(rs));
+    }
 
     /**
      * Querying a list
@@ -860,22 +1202,190 @@ public class BalalaQuery<T extends Model> {
      * @return List<S>
      */
     public <S> Future<List<JsonObject>> queryList(String sql, JsonArray params) {
-        Future<List<JsonObject>> future = Future.future();
-        SQLClient sqlClient = getSqlClient();
-        sqlClient.queryWithParams(sql,params,res -> {
-            if (res.succeeded()){
-                List<JsonObject> rows = res.result().getRows();
-                if (rows!=null && rows.size()>0){
-                    future.complete(rows);
-                }
-            }else {
+        return this.query(sql, params, ResultSet::getRows);
+    }
+
+
+    /**
+     * Keyset paging: the rows after a cursor in the order of this query, the primary key
+     * is appended to the order as tie-breaker. No count query is run and the cost
+     * does not grow with the page depth.
+     *
+     * @param cursor cursor of the previous page, null for the first page
+     * @param limit  number each page, at least 1
+     * @return SeekPage
+     */
+    public Future<SeekPage<JsonObject>> pageAfter(String cursor, int limit) {
+        return this.pageAfter(cursor, limit, ResultSet::getRows);
+    }
+
+    /**
+     * Keyset paging mapped to the model type
+     *
+     * @param cursor cursor of the previous page, null for the first page
+     * @param limit  number each page, at least 1
+     * @return SeekPage
+     * @see #pageAfter(String, int)
+     */
+    public Future<SeekPage<T>> findPageAfter(String cursor, int limit) {
+        return this.pageAfter(cursor, limit, rs -> RowMapper.of(modelClass, rs.getColumnNames()).mapAll(rs));
+    }
+
+    private <S> Future<SeekPage<S>> pageAfter(String cursor, int limit, Function<ResultSet, List<S>> rowsMapper) {
+        if (limit < 1) {
+            throw new AnimaException("Seek page limit must be at least 1, got " + limit);
+        }
+        this.beforeCheck();
+        Keyset        keyset    = new Keyset(this.orderBySQL.toString(), this.primaryKeyColumn);
+        StringBuilder condition = this.conditionSQL;
+        JsonArray     params    = this.paramValues;
+        if (null != cursor) {
+            params = this.paramValues.copy();
+            String predicate = keyset.predicate(keyset.decode(cursor), params);
+            condition = new StringBuilder(" AND ");
+            if (this.conditionSQL.length() > 0) {
+                condition.append('(').append(this.conditionSQL.substring(5)).append(") AND ");
+            }
+            condition.append('(').append(predicate).append(')');
+        }
+        String sql = this.buildSeekSQL(condition, keyset.orderBy(), limit + 1);
+        return this.query(sql, params, rs -> {
+            String          next    = null;
+            List<JsonArray> results = rs.getResults();
+            if (results.size() > limit) {
+                results = new ArrayList<>(results.subList(0, limit));
+                next = keyset.encode(rs.getColumnNames(), results.get(limit - 1));
+                rs.setResults(results);
+            }
+            return new SeekPage<>(rowsMapper.apply(rs), limit, next);
+        });
+    }
+
+    /**
+     * Stream all rows without buffering the result set
+     *
+     * @return row stream, the connection is released when it ends, fails or {@link RowStream#close()} cancels it
+     */
+    public Future<RowStream<JsonObject>> stream() {
+        return this.stream(balala().getFetchSize());
+    }
+
+    /**
+     * Stream all rows without buffering the result set
+     *
+     * @param fetchSize rows fetched per round-trip
+     * @return row stream, the connection is released when it ends, fails or {@link RowStream#close()} cancels it
+     */
+    public Future<RowStream<JsonObject>> stream(int fetchSize) {
+        this.beforeCheck();
+        String sql = this.buildSelectSQL(true);
+        return this.queryStream(sql, paramValues, fetchSize);
+    }
+
+    /**
+     * Stream all rows mapped to the model type without buffering the result set
+     *
+     * @return model stream, the connection is released when it ends, fails or {@link RowStream#close()} cancels it
+     */
+    public Future<RowStream<T>> findStream() {
+        return this.findStream(balala().getFetchSize());
+    }
+
+    /**
+     * Stream all rows mapped to the model type without buffering the result set
+     *
+     * @param fetchSize rows fetched per round-trip
+     * @return model stream, the connection is released when it ends, fails or {@link RowStream#close()} cancels it
+     */
+    public Future<RowStream<T>> findStream(int fetchSize) {
+        this.beforeCheck();
+        String sql = this.buildSelectSQL(true);
+        return this.queryStream(modelClass, sql, paramValues, fetchSize);
+    }
+
+    /**
+     * Streaming a query
+     *
+     * @param sql       sql statement
+     * @param params    params
+     * @param fetchSize rows fetched per round-trip
+     * @return row stream
+     */
+    public Future<RowStream<JsonObject>> queryStream(String sql, JsonArray params, int fetchSize) {
+        return this.queryStream(sql, params, fetchSize, columns -> row -> {
+            JsonObject json = new JsonObject();
+            for (int i = 0; i < columns.size(); i++) {
+                json.put(columns.get(i), row.getValue(i));
+            }
+            return json;
+        });
+    }
+
+    /**
+     * Streaming a query mapped to the given type
+     *
+     * @param type      row type
+     * @param sql       sql statement
+     * @param params    params
+     * @param fetchSize rows fetched per round-trip
+     * @param <S>
+     * @return model stream
+     */
+    public <S> Future<RowStream<S>> queryStream(Class<S> type, String sql, JsonArray params, int fetchSize) {
+        return this.queryStream(sql, params, fetchSize, columns -> RowMapper.of(type, columns)::map);
+    }
+
+    private <S> Future<RowStream<S>> queryStream(String sql, JsonArray params, int fetchSize,
+                                                 Function<List<String>, Function<JsonArray, S>> mapperFactory) {
+        this.singleShard("stream");
+        Future<RowStream<S>> future = Future.future();
+        if (null != tx) {
+            this.queryStream(tx.getConnection(), null, sql, params, fetchSize, mapperFactory, future);
+            return future;
+        }
+        SQLExecutor executor = balala().getExecutor();
+        balala().getRouter().query(getSqlClient(), session, client -> executor.connection(client, timeout)).setHandler(res -> {
+            if (res.failed()) {
                 future.fail(res.cause());
+                this.clean();
+                return;
             }
-            this.clean();
+            SQLConnection connection = res.result();
+            this.queryStream(connection, () -> executor.giveBack(connection), sql, params, fetchSize, mapperFactory, future);
         });
         return future;
     }
 
+    /**
+     * @param release gives the connection back, null for the connection of a transaction
+     */
+    private <S> void queryStream(SQLConnection connection, Runnable release, String sql, JsonArray params, int fetchSize,
+                                 Function<List<String>, Function<JsonArray, S>> mapperFactory, Future<RowStream<S>> future) {
+        if (fetchSize > 0) {
+            connection.setOptions(new SQLOptions().setFetchSize(fetchSize));
+        }
+        connection.queryStreamWithParams(sql, params, streamRes -> {
+            if (streamRes.succeeded()) {
+                SQLRowStream rowStream = streamRes.result();
+                try {
+                    future.complete(new RowStream<>(release, rowStream, mapperFactory.apply(rowStream.columns())));
+                } catch (Exception e) {
+                    rowStream.close(v -> {
+                        if (null != release) {
+                            release.run();
+                        }
+                    });
+                    future.fail(e);
+                }
+            } else {
+                if (null != release) {
+                    release.run();
+                }
+                future.fail(streamRes.cause());
+            }
+            this.clean();
+        });
+    }
 
     /**
      * Paging query results
@@ -888,6 +1398,17 @@ public class BalalaQuery<T extends Model> {
         return this.page(new PageRow(page, limit));
     }
 
+    /**
+     * Paging query results, mapped to the model type
+     *
+     * @param page  page number
+     * @param limit number each page
+     * @return Page
+     */
+    public Future<Page<T>> findPage(int page, int limit) {
+        return this.findPage(new PageRow(page, limit));
+    }
+
     /**
      * Paging query results by sql
      *
@@ -909,34 +1430,21 @@ public class BalalaQuery<T extends Model> {
      * @return Page
      */
     public Future<Page<JsonObject>> page(String sql, JsonArray params, PageRow pageRow) {
+        return this.page(sql, params, pageRow, ResultSet::getRows);
+    }
 
-        Future<Page<JsonObject>> future = Future.future();
-        this.beforeCheck();
-        String     countSql = "SELECT COUNT(*) FROM (" + sql + ") tmp";
-        SQLClient sqlClient = getSqlClient();
-
-        //count
-        sqlClient.queryWithParams(countSql,params, res -> {
-            if (res.succeeded()){
-                Long count = res.result().getResults().get(0).getLong(0);
-                //page
-                String  pageSQL = this.buildPageSQL(sql, pageRow);
-                sqlClient.queryWithParams(pageSQL,params, pageRes ->{
-                    if (pageRes.succeeded()){
-                        List<JsonObject> rows = pageRes.result().getRows();
-                        Page<JsonObject> pageBean = new Page<>(count, pageRow.getPageNum(), pageRow.getPageSize());
-                        pageBean.setRows(rows);
-                        future.complete(pageBean);
-                    }else {
-                        future.fail(res.cause());
-                    }
-                });
-            }else{
-                future.fail(res.cause());
-            }
-            this.clean();
-        });
-        return future;
+    /**
+     * Paging query results by sql, mapped to the given type
+     *
+     * @param type    row type
+     * @param sql     sql statement
+     * @param params  param values
+     * @param pageRow page param
+     * @param <S>
+     * @return Page
+     */
+    public <S> Future<Page<S>> page(Class<S> type, String sql, JsonArray params, PageRow pageRow) {
+        return this.page(sql, params, pageRow, rs -> RowMapper.of(type, rs.getColumnNames()).mapAll(rs));
     }
 
     /**
@@ -950,33 +1458,279 @@ public class BalalaQuery<T extends Model> {
         return this.page(sql, pageRow);
     }
 
+    /**
+     * Paging query results, mapped to the model type
+     *
+     * @param pageRow page params
+     * @return Page
+     */
+    public Future<Page<T>> findPage(PageRow pageRow) {
+        String sql = this.buildSelectSQL(false);
+        return this.page(modelClass, sql, paramValues, pageRow);
+    }
 
-   /* public Future<Long> count() {
+    /**
+     * The count and the page query run at the same time, on their own pooled connections; in a
+     * transaction they run one after the other, a connection running one statement at a time.
+     */
+    private <S> Future<Page<S>> page(String sql, JsonArray params, PageRow pageRow, Function<ResultSet, List<S>> rowsMapper) {
+        Future<Page<S>> future = Future.future();
         this.beforeCheck();
-        String sql = this.buildCountSQL();
-        return this.queryOne(Long.class, sql, paramValues);
-    }*/
+        boolean   scatter    = this.isScatter();
+        PageRow   page       = scatter ? new PageRow(1, pageRow.getPageNum() * pageRow.getPageSize()) : pageRow;
+        JsonArray pageParams = dialect().paginateParams(page, params);
+        String    pageSQL    = this.buildPageSQL(sql, page, null != pageParams);
+
+        this.shardOrder = null;
+        Future<Long> countFuture = this.pageCount(sql, params, pageRow);
+        this.shardOrder = this.orderBySQL.toString();
+
+        JsonArray                    rowsParams = null != pageParams ? pageParams : params;
+        Function<ResultSet, List<S>> mapper     = scatter ? rs -> rowsMapper.apply(slice(rs, pageRow)) : rowsMapper;
+        Future<List<S>>              rowsFuture;
+        if (null != tx) {
+            // a future has a single handler: the rows wait for the count, the page for a copy of it
+            Future<Long> counted = Future.future();
+            rowsFuture = countFuture.compose(count -> {
+                counted.complete(count);
+                return this.execute(pageSQL, rowsParams, mapper);
+            });
+            countFuture = counted;
+        } else {
+            rowsFuture = this.execute(pageSQL, rowsParams, mapper);
+        }
+        CompositeFuture.all(countFuture, rowsFuture).setHandler(res -> {
+            this.clean();
+            if (res.failed()) {
+                future.fail(res.cause());
+                return;
+            }
+            long    count = res.result().<Long>resultAt(0);
+            List<S> rows  = res.result().resultAt(1);
+            Page<S> pageBean;
+            if (count < 0) {
+                pageBean = new Page<>(pageRow.getPageNum(), pageRow.getPageSize(), rows);
+            } else {
+                if (pageRow.getCountMode() == CountMode.ESTIMATE) {
+                    count = Math.max(count, (long) (pageRow.getPageNum() - 1) * pageRow.getPageSize() + rows.size());
+                }
+                pageBean = new Page<>(count, pageRow.getPageNum(), pageRow.getPageSize());
+                pageBean.setRows(rows);
+            }
+            future.complete(pageBean);
+        });
+        return future;
+    }
+
+    /**
+     * The rows of a page, out of the first pages of every shard merged in order.
+     */
+    private static ResultSet slice(ResultSet resultSet, PageRow pageRow) {
+        int rows = resultSet.getNumRows();
+        int from = Math.min((pageRow.getPageNum() - 1) * pageRow.getPageSize(), rows);
+        int to   = Math.min(from + pageRow.getPageSize(), rows);
+        return new ResultSet(resultSet.getColumnNames(), new ArrayList<>(resultSet.getResults().subList(from, to)), null);
+    }
+
+    /**
+     * Total rows of a page query according to {@link PageRow#getCountMode()}, -1 when skipped.
+     */
+    private Future<Long> pageCount(String sql, JsonArray params, PageRow pageRow) {
+        Dialect dialect  = dialect();
+        String  countSql = "SELECT COUNT(*) FROM (" + sql + ") tmp";
+        switch (pageRow.getCountMode()) {
+            case NONE:
+                return Future.succeededFuture(-1L);
+            case ESTIMATE:
+                String estimateSql = dialect.estimate(sql);
+                if (null != estimateSql) {
+                    return this.isScatter() ? this.estimateOnShards(estimateSql, params)
+                            : this.execute(estimateSql, params, dialect::estimatedRows);
+                }
+                break;
+            case CACHED:
+                String scope = balala().getName();
+                Long cached = CountCache.get(scope, countSql, params);
+                if (null != cached) {
+                    return Future.succeededFuture(cached);
+                }
+                return this.execute(countSql, params, rs -> {
+                    long count = sumCounts(rs);
+                    CountCache.put(scope, countSql, params, count, pageRow.getCountTtl());
+                    return count;
+                });
+            default:
+                break;
+        }
+        return this.execute(countSql, params, BalalaQuery::sumCounts);
+    }
+
+    /**
+     * Sum the row estimates of every shard, each read from the plan of its own shard.
+     */
+    @SuppressWarnings("rawtypes")
+    private Future<Long> estimateOnShards(String estimateSql, JsonArray params) {
+        List<Future> estimates = new ArrayList<>();
+        for (Balala shard : Sharding.shards(modelClass)) {
+            estimates.add(fetch(shard, modelClass, estimateSql, params, timeout, session).map(shard.getDialect()::estimatedRows));
+        }
+        return CompositeFuture.all(estimates).map(all -> {
+            long count = 0;
+            for (int i = 0; i < all.size(); i++) {
+                count += all.<Long>resultAt(i);
+            }
+            return count;
+        });
+    }
 
     /**
      * Count the number of rows.
      *
      * @return models count
      */
-   public Future<Long> count(){
-       Future<Long> future = Future.future();
-       this.beforeCheck();
-       String sql = this.buildCountSQL();
-       SQLClient sqlClient = getSqlClient();
-       sqlClient.queryWithParams(sql,paramValues, res -> {
-            if (res.succeeded()){
-                Long count = res.result().getResults().get(0).getLong(0);
-                future.complete(count);
-            }else {
+    public Future<Long> count() {
+        this.beforeCheck();
+        String sql = this.buildCountSQL();
+        return this.query(sql, paramValues, BalalaQuery::sumCounts);
+    }
+
+    /**
+     * Compile the query built so far into an immutable {@link PreparedQuery}, and clear this
+     * builder. The values given to the builder become the defaults of the positional slots.
+     *
+     * @return prepared query of the model type
+     */
+    public PreparedQuery<T> compile() {
+        this.beforeCheck();
+        if (null != tx) {
+            throw new AnimaException("Cannot compile a query of a transaction, a prepared query runs on pooled connections");
+        }
+        this.singleShard("compile");
+        String sql = this.buildSelectSQL(true);
+        try {
+            return new PreparedQuery<>(balala(), modelClass, sql, paramValues);
+        } finally {
+            this.clean();
+        }
+    }
+
+    /**
+     * Run the query built so far and return the raw result set.
+     */
+    Future<ResultSet> resultSet() {
+        this.beforeCheck();
+        String sql = this.buildSelectSQL(true);
+        return this.query(sql, paramValues, Function.identity());
+    }
+
+    /**
+     * A lookup by primary key only, whose rows are whole and can be shared.
+     */
+    private boolean isPlainLookup() {
+        return conditionSQL.length() == 0 && null == selectColumns && excludedColumns.isEmpty();
+    }
+
+    /**
+     * A plain lookup of a model kept in the entity cache.
+     */
+    private boolean isCachedLookup() {
+        return this.isPlainLookup() && EntityCache.isEnabled(modelClass) && null == tx;
+    }
+
+    /**
+     * A plain lookup on a context can join the context's batch loader.
+     */
+    private boolean isBatchLoadable() {
+        return balala().isBatchLoad() && null != Vertx.currentContext() && this.isPlainLookup() && !this.isScatter()
+                && null == tx;
+    }
+
+    private T toModel(JsonObject row) {
+        return RowMapper.of(modelClass, new ArrayList<>(row.fieldNames())).map(row);
+    }
+
+    private Future<ResultSet> batchLoad(Object id) {
+        this.clean();
+        return BatchLoader.load(Vertx.currentContext(), balala(), modelClass, id);
+    }
+
+    /**
+     * Run a query, convert its result set and clear the battlefield.
+     */
+    private <S> Future<S> query(String sql, JsonArray params, Function<ResultSet, S> mapper) {
+        return this.execute(sql, params, mapper, true);
+    }
+
+    private <S> Future<S> execute(String sql, JsonArray params, Function<ResultSet, S> mapper) {
+        return this.execute(sql, params, mapper, false);
+    }
+
+    /**
+     * Run a query and convert its result set, an empty result completes the mapper's empty value.
+     */
+    private <S> Future<S> execute(String sql, JsonArray params, Function<ResultSet, S> mapper, boolean clean) {
+        Future<S>         future = Future.future();
+        Future<ResultSet> resultSet;
+        if (cacheTtl > 0 && null != tableName && null == tx) {
+            resultSet = QueryCache.get(String.valueOf(cacheOwner().scope(tableName)), sql, params, cacheTtl, () -> this.fetch(sql, params));
+        } else {
+            resultSet = this.fetch(sql, params);
+        }
+        resultSet.setHandler(res -> {
+            if (clean) {
+                this.clean();
+            }
+            if (res.succeeded()) {
+                try {
+                    future.complete(mapper.apply(res.result()));
+                } catch (Exception e) {
+                    future.fail(e);
+                }
+            } else {
                 future.fail(res.cause());
             }
-       });
-       return future;
-   }
+        });
+        return future;
+    }
+
+    private Future<ResultSet> fetch(String sql, JsonArray params) {
+        if (null != tx) {
+            return balala().getExecutor().query(tx.getConnection(), modelClass, sql, params, timeout);
+        }
+        if (!this.isScatter()) {
+            return fetch(balala(), modelClass, sql, params, timeout, session);
+        }
+        List<Future<ResultSet>> parts = new ArrayList<>();
+        for (Balala shard : Sharding.shards(modelClass)) {
+            parts.add(fetch(shard, modelClass, sql, params, timeout, session));
+        }
+        return Sharding.gather(parts, shardOrder);
+    }
+
+    private static Future<ResultSet> fetch(Balala balala, Class<?> modelClass, String sql, JsonArray params, long timeout,
+                                           ReplicaRouter.Session session) {
+        return SingleFlight.query(balala.getCoalesceMode(), balala.getName(), balala.getRouter().readsPrimary(session), sql, params,
+                () -> balala.getRouter().query(balala.getSqlClient(), session,
+                        client -> balala.getExecutor().query(client, modelClass, sql, params, timeout)));
+    }
+
+    /**
+     * Count rows, a count run on every shard returns one row per shard.
+     */
+    private static long sumCounts(ResultSet resultSet) {
+        long count = 0;
+        for (JsonArray row : resultSet.getResults()) {
+            count += row.getLong(0);
+        }
+        return count;
+    }
+
+    private String limitOne(String sql) {
+        if (balala().isUseSQLLimit()) {
+            return sql + " LIMIT 1";
+        }
+        return sql;
+    }
 
     private void setArguments(Object[] args) {
         for (int i = 0; i < args.length; i++) {
@@ -996,6 +1750,13 @@ public class BalalaQuery<T extends Model> {
      * @return select sql
      */
     private String buildSelectSQL(boolean addOrderBy) {
+        StringBuilder orderBy = addOrderBy ? this.orderBySQL : null;
+        this.shardOrder = addOrderBy && this.isScatter() ? orderBy.toString() : null;
+        return SQLCache.get(() -> this.buildSelectSQL(addOrderBy ? orderBy.toString() : null), "select", dialect(), modelClass,
+                tableName, selectColumns, excludedColumns, conditionSQL, orderBy, isSQLLimit);
+    }
+
+    private String buildSelectSQL(String orderBy) {
         SQLParams sqlParams = SQLParams.builder()
             .modelClass(this.modelClass)
             .selectColumns(this.selectColumns)
@@ -1004,12 +1765,33 @@ public class BalalaQuery<T extends Model> {
             .conditionSQL(this.conditionSQL)
             .excludedColumns(this.excludedColumns)
             .isSQLLimit(isSQLLimit)
+            .orderBy(orderBy)
             .build();
+        return dialect().select(sqlParams);
+    }
 
-        if (addOrderBy) {
-            sqlParams.setOrderBy(this.orderBySQL.toString());
-        }
-        return Balala.me().getDialect().select(sqlParams);
+    /**
+     * Build a keyset page statement.
+     *
+     * @param condition condition with the seek predicate
+     * @param orderBy   keyset order
+     * @param limit     max rows
+     * @return seek sql
+     */
+    private String buildSeekSQL(StringBuilder condition, String orderBy, int limit) {
+        this.shardOrder = orderBy;
+        return SQLCache.get(() -> {
+            SQLParams sqlParams = SQLParams.builder()
+                .modelClass(this.modelClass)
+                .selectColumns(this.selectColumns)
+                .tableName(this.tableName)
+                .pkName(this.primaryKeyColumn)
+                .conditionSQL(condition)
+                .excludedColumns(this.excludedColumns)
+                .orderBy(orderBy)
+                .build();
+            return dialect().seek(sqlParams, limit);
+        }, "seek", dialect(), modelClass, tableName, selectColumns, excludedColumns, condition, orderBy, limit);
     }
 
     /**
@@ -1018,39 +1800,99 @@ public class BalalaQuery<T extends Model> {
      * @return count sql
      */
     private String buildCountSQL() {
-        SQLParams sqlParams = SQLParams.builder()
-            .modelClass(this.modelClass)
-            .tableName(this.tableName)
-            .pkName(this.primaryKeyColumn)
-            .conditionSQL(this.conditionSQL)
-            .build();
-        return Balala.me().getDialect().count(sqlParams);
+        return SQLCache.get(() -> {
+            SQLParams sqlParams = SQLParams.builder()
+                .modelClass(this.modelClass)
+                .tableName(this.tableName)
+                .pkName(this.primaryKeyColumn)
+                .conditionSQL(this.conditionSQL)
+                .build();
+            return dialect().count(sqlParams);
+        }, "count", dialect(), tableName, conditionSQL);
     }
 
     /**
      * Build a paging statement
      *
      * @param pageRow page param
+     * @param bound   whether the dialect binds the page bounds, which then stay out of the cache key
      * @return paging sql
      */
-    private String buildPageSQL(String sql, PageRow pageRow) {
-        SQLParams sqlParams = SQLParams.builder()
-            .modelClass(this.modelClass)
-            .selectColumns(this.selectColumns)
-            .tableName(this.tableName)
-            .pkName(this.primaryKeyColumn)
-            .conditionSQL(this.conditionSQL)
-            .excludedColumns(this.excludedColumns)
-            .customSQL(sql)
-            .orderBy(this.orderBySQL.toString())
-            .pageRow(pageRow)
-            .build();
-        return Balala.me().getDialect().paginate(sqlParams);
+    private String buildPageSQL(String sql, PageRow pageRow, boolean bound) {
+        return SQLCache.get(() -> {
+            SQLParams sqlParams = SQLParams.builder()
+                .modelClass(this.modelClass)
+                .selectColumns(this.selectColumns)
+                .tableName(this.tableName)
+                .pkName(this.primaryKeyColumn)
+                .conditionSQL(this.conditionSQL)
+                .excludedColumns(this.excludedColumns)
+                .customSQL(sql)
+                .orderBy(this.orderBySQL.toString())
+                .pageRow(pageRow)
+                .build();
+            return dialect().paginate(sqlParams);
+        }, "page", dialect(), modelClass, sql, orderBySQL, bound ? 0 : pageRow.getPageNum(), bound ? 0 : pageRow.getPageSize());
+    }
+
+    private Balala balala() {
+        if (null != balala) {
+            return balala;
+        }
+        if (null != shard) {
+            return shard;
+        }
+        if (null != modelClass && Sharding.isSharded(modelClass)) {
+            return Sharding.shards(modelClass).get(0);
+        }
+        balala = Balala.me();
+        return balala;
+    }
+
+    private Balala cacheOwner() {
+        return Sharding.cacheOwner(modelClass, balala());
+    }
+
+    /**
+     * Route the query to one shard when the condition fixes the shard key, "column" or "column = ?".
+     */
+    private void shardBy(String statement, Object value) {
+        if (null != balala || null == modelClass || disjunction || !Sharding.isSharded(modelClass)) {
+            return;
+        }
+        String column = statement.trim();
+        if (column.endsWith("?")) {
+            column = column.substring(0, column.length() - 1).trim();
+            if (!column.endsWith("=") || column.endsWith("!=") || column.endsWith("<=") || column.endsWith(">=")) {
+                return;
+            }
+            column = column.substring(0, column.length() - 1).trim();
+        }
+        if (column.equalsIgnoreCase(Sharding.getColumn(modelClass))) {
+            this.shard = Sharding.shard(modelClass, value);
+        }
+    }
+
+    /**
+     * A sharded model queried without its shard key runs on every shard.
+     */
+    private boolean isScatter() {
+        return null == balala && null == shard && null != modelClass && Sharding.isSharded(modelClass);
+    }
+
+    private void singleShard(String operation) {
+        if (this.isScatter()) {
+            throw new AnimaException("Cannot " + operation + " " + modelClass.getSimpleName() + " across shards, add a shard key condition");
+        }
+    }
+
+    private Dialect dialect() {
+        return balala().getDialect();
     }
 
 
     private SQLClient getSqlClient(){
-        return Balala.me().getSqlClient();
+        return balala().getSqlClient();
     }
 
     /**
@@ -1071,7 +1913,13 @@ public class BalalaQuery<T extends Model> {
         this.isSQLLimit = false;
         this.orderBySQL = new StringBuilder();
         this.conditionSQL = new StringBuilder();
-        this.paramValues.clear();
-        this.excludedColumns.clear();
+        this.paramValues = new JsonArray();
+        this.excludedColumns = new ArrayList<>(8);
+        this.cacheTtl = 0;
+        this.timeout = 0;
+        this.session = null;
+        this.shard = null;
+        this.disjunction = false;
+        this.shardOrder = null;
     }
 }
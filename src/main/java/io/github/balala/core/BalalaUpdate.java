@@ -2,22 +2,33 @@ package io.github.balala.core;
 
 import io.github.balala.Balala;
 import io.github.balala.Model;
+import io.github.balala.Transaction;
+import io.github.balala.core.cache.EntityCache;
+import io.github.balala.core.cache.QueryCache;
 import io.github.balala.core.functions.TypeFunction;
+import io.github.balala.core.shard.Sharding;
+import io.github.balala.dialect.Dialect;
 import io.github.balala.enums.DMLType;
 import io.github.balala.enums.ErrorCode;
 import io.github.balala.exception.AnimaException;
 import io.github.balala.utils.AnimaUtils;
+import io.vertx.core.CompositeFuture;
 import io.vertx.core.Future;
 import io.vertx.core.json.JsonArray;
 import io.vertx.ext.sql.SQLClient;
-import io.vertx.ext.sql.SQLConnection;
+import io.vertx.ext.sql.UpdateResult;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.Serializable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.LinkedHashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.IntFunction;
 
 /**
  * update by model
@@ -64,6 +75,31 @@ public class BalalaUpdate<T extends Model> {
      */
     private DMLType dmlType;
 
+    /**
+     * Instance the statement runs on, {@link Balala#me()} when not set.
+     */
+    private Balala balala;
+
+    /**
+     * Transaction the statement runs in, on its connection, null for a pooled connection.
+     */
+    private Transaction tx;
+
+    /**
+     * Shard holding the rows of a sharded model, when the statement fixes the shard key.
+     */
+    private Balala shard;
+
+    /**
+     * Milliseconds each statement may wait for a connection and run, 0 for the default of the instance.
+     */
+    private long timeout;
+
+    /**
+     * Read-your-writes session of the request, pinned to the primary by the statement.
+     */
+    private ReplicaRouter.Session session;
+
     public BalalaUpdate(Class<T> modelClass) {
         this.parse(modelClass);
     }
@@ -76,11 +112,62 @@ public class BalalaUpdate<T extends Model> {
     }
     public BalalaUpdate<T> parse(Class<T> modelClass) {
         this.modelClass = modelClass;
-        this.tableName = AnimaCache.getTableName(modelClass);
+        this.tableName = balala().getTableName(modelClass);
         this.primaryKeyColumn = AnimaCache.getPKColumn(modelClass);
         return this;
     }
 
+    /**
+     * Run the statement on the given instance instead of {@link Balala#me()}.
+     *
+     * @param balala Balala instance
+     * @return BalalaUpdate
+     */
+    public BalalaUpdate<T> using(Balala balala) {
+        this.balala = balala;
+        if (null != modelClass) {
+            this.tableName = balala.getTableName(modelClass);
+        }
+        return this;
+    }
+
+    /**
+     * Run the statement in a transaction, on its connection.
+     *
+     * @param tx transaction
+     * @return BalalaUpdate
+     */
+    public BalalaUpdate<T> using(Transaction tx) {
+        this.tx = tx;
+        return this.using(tx.getBalala());
+    }
+
+    /**
+     * Fail the statement when it has not completed within the timeout, waiting for a
+     * connection included; the database cancels it too. A batch applies it to each chunk.
+     *
+     * @param timeout deadline of the statement
+     * @return BalalaUpdate
+     * @see SQLExecutor
+     */
+    public BalalaUpdate<T> timeout(Duration timeout) {
+        this.timeout = timeout.toMillis();
+        return this;
+    }
+
+    /**
+     * Send the reads made with the session to the primary once the statement wrote, so that
+     * they see it despite replication lag.
+     *
+     * @param session read-your-writes session of the request
+     * @return BalalaUpdate
+     * @see ReplicaRouter
+     */
+    public BalalaUpdate<T> session(ReplicaRouter.Session session) {
+        this.session = session;
+        return this;
+    }
+
     /**
      * Save a model
      *
@@ -89,13 +176,19 @@ public class BalalaUpdate<T extends Model> {
      * @return ResultKey
      */
     public <S extends Model> Future<ResultKey> save(S model) {
+        this.shardBy(model, true);
         Future<ResultKey> future = Future.future();
         String       sql             = this.buildInsertSQL(model);
         JsonArray columnValueList = AnimaUtils.toColumnValues(model, true);
-        SQLClient sqlClient = getSqlClient();
-        sqlClient.updateWithParams(sql,columnValueList,res -> {
+        Object       primaryKey      = this.primaryKey(model);
+        this.beforeWrite();
+        this.run(DMLType.INSERT, sql, columnValueList).setHandler(res -> {
              if (res.succeeded()) {
                  Object key = res.result().getKeys().getValue(0);
+                 this.written();
+                 if (null != primaryKey || null != key) {
+                     this.evict(null != primaryKey ? primaryKey : key);
+                 }
                  future.complete(new ResultKey(key));
              }else {
                  future.fail(res.cause());
@@ -110,12 +203,19 @@ public class BalalaUpdate<T extends Model> {
      * @return affect the number of rows
      */
     public Future<Integer> update() {
+        return this.update(null);
+    }
+
+    /**
+     * @param id primary key of the updated row, null when the condition may match any row
+     */
+    private Future<Integer> update(Object id) {
         this.beforeCheck();
         String       sql             = this.buildUpdateSQL(null, updateColumns);
         JsonArray columnValueList = new JsonArray();
         updateColumns.forEach((key, value) -> columnValueList.add(value));
         columnValueList.addAll(paramValues);
-        return this.execute(sql, columnValueList);
+        return this.evict(id, this.execute(sql, columnValueList));
     }
 
     /**
@@ -127,6 +227,7 @@ public class BalalaUpdate<T extends Model> {
      */
     public <S extends Model> Future<Integer> updateByModel(S model) {
         this.beforeCheck();
+        this.shardBy(model, false);
 
         Object primaryKey = AnimaUtils.getAndRemovePrimaryKey(model);
 
@@ -137,7 +238,7 @@ public class BalalaUpdate<T extends Model> {
             sql.append(" WHERE ").append(this.primaryKeyColumn).append(" = ?");
             columnValueList.add(primaryKey);
         }
-        return this.execute(sql.toString(), columnValueList);
+        return this.evict(primaryKey, this.execute(sql.toString(), columnValueList));
     }
 
     /**
@@ -148,7 +249,7 @@ public class BalalaUpdate<T extends Model> {
      */
     public Future<Integer> updateById(Serializable id) {
         this.where(primaryKeyColumn, id);
-        return this.update();
+        return this.update(id);
     }
 
     /**
@@ -160,11 +261,12 @@ public class BalalaUpdate<T extends Model> {
      * @return affect the number of rows, normally it's 1.
      */
     public <S extends Model> Future<Integer> updateById(S model, Serializable id) {
+        this.shardBy(model, false);
         this.where(primaryKeyColumn, id);
         String       sql             = this.buildUpdateSQL(model, null);
         JsonArray columnValueList = AnimaUtils.toColumnValues(model, false);
         columnValueList.add(id);
-        return this.execute(sql, columnValueList);
+        return this.evict(id, this.execute(sql, columnValueList));
     }
 
     /**
@@ -176,9 +278,11 @@ public class BalalaUpdate<T extends Model> {
      */
     public <S extends Model> Future<Integer> deleteByModel(S model) {
         this.beforeCheck();
+        this.shardBy(model, false);
         String       sql             = this.buildDeleteSQL(model);
         JsonArray columnValueList = AnimaUtils.toColumnValues(model, false);
-        return this.execute(sql, columnValueList);
+        Object       primaryKey      = conditionSQL.length() > 0 ? null : this.primaryKey(model);
+        return this.evict(primaryKey, this.execute(sql, columnValueList));
     }
 
     /**
@@ -207,6 +311,17 @@ public class BalalaUpdate<T extends Model> {
         return this.set(AnimaUtils.getLambdaColumnName(function), value);
     }
 
+    /**
+     * Update the model sets column.
+     *
+     * @param column   metamodel column, like User_.AGE
+     * @param value    column value
+     * @return
+     */
+    public BalalaUpdate<T> set(ModelColumn<? extends Model, ?> column, Object value) {
+        return this.set(column.getColumnName(), value);
+    }
+
 
     /**
      * where condition, simultaneous setting value
@@ -221,6 +336,7 @@ public class BalalaUpdate<T extends Model> {
             conditionSQL.append(" = ?");
         }
         paramValues.add(value);
+        this.shardBy(statement, value);
         return this;
     }
 
@@ -237,6 +353,22 @@ public class BalalaUpdate<T extends Model> {
         String columnName = AnimaUtils.getLambdaColumnName(function);
         conditionSQL.append(" AND ").append(columnName).append(" = ?");
         paramValues.add(value);
+        this.shardBy(columnName, value);
+        return this;
+    }
+
+    /**
+     * Set the column name with a metamodel column, at the same time setting the value, the SQL generated is "column = ?"
+     *
+     * @param column   metamodel column, like User_.AGE
+     * @param value    column value
+     * @return AnimaQuery
+     */
+    public BalalaUpdate<T> where(ModelColumn<? extends Model, ?> column, Object value) {
+        String columnName = column.getColumnName();
+        conditionSQL.append(" AND ").append(columnName).append(" = ?");
+        paramValues.add(value);
+        this.shardBy(columnName, value);
         return this;
     }
 
@@ -249,10 +381,14 @@ public class BalalaUpdate<T extends Model> {
      * @return affect the number of rows
      */
     public Future<Integer> execute(String sql,JsonArray columnValue){
+        if (this.isScatter()) {
+            return this.executeOnShards(sql, columnValue);
+        }
         Future<Integer> future = Future.future();
-        SQLClient sqlClient = getSqlClient();
-        sqlClient.updateWithParams(sql,columnValue,res -> {
+        this.beforeWrite();
+        this.run(dmlType(sql), sql, columnValue).setHandler(res -> {
             if (res.succeeded()){
+                this.written();
                 int rows = res.result().getUpdated();
                 future.complete(rows);
             }else {
@@ -271,14 +407,15 @@ public class BalalaUpdate<T extends Model> {
      * @return insert sql
      */
     private <S extends Model> String buildInsertSQL(S model) {
-        SQLParams sqlParams = SQLParams.builder()
-            .model(model)
-            .modelClass(this.modelClass)
-            .tableName(this.tableName)
-            .pkName(this.primaryKeyColumn)
-            .build();
-
-        return Balala.me().getDialect().insert(sqlParams);
+        return SQLCache.get(() -> {
+            SQLParams sqlParams = SQLParams.builder()
+                .model(model)
+                .modelClass(this.modelClass)
+                .tableName(this.tableName)
+                .pkName(this.primaryKeyColumn)
+                .build();
+            return dialect().insert(sqlParams);
+        }, "insert", dialect(), modelClass, tableName);
     }
 
     /**
@@ -290,16 +427,19 @@ public class BalalaUpdate<T extends Model> {
      * @return update sql
      */
     private <S extends Model> String buildUpdateSQL(S model, Map<String, Object> updateColumns) {
-        SQLParams sqlParams = SQLParams.builder()
-            .model(model)
-            .modelClass(this.modelClass)
-            .tableName(this.tableName)
-            .pkName(this.primaryKeyColumn)
-            .updateColumns(updateColumns)
-            .conditionSQL(this.conditionSQL)
-            .build();
-
-        return Balala.me().getDialect().update(sqlParams);
+        Object columns = null != updateColumns && !updateColumns.isEmpty()
+                ? String.join(",", updateColumns.keySet()) : nonNullColumns(model);
+        return SQLCache.get(() -> {
+            SQLParams sqlParams = SQLParams.builder()
+                .model(model)
+                .modelClass(this.modelClass)
+                .tableName(this.tableName)
+                .pkName(this.primaryKeyColumn)
+                .updateColumns(updateColumns)
+                .conditionSQL(this.conditionSQL)
+                .build();
+            return dialect().update(sqlParams);
+        }, "update", dialect(), modelClass, tableName, columns, conditionSQL);
     }
 
     /**
@@ -310,18 +450,247 @@ public class BalalaUpdate<T extends Model> {
      * @return delete sql
      */
     private <S extends Model> String buildDeleteSQL(S model) {
-        SQLParams sqlParams = SQLParams.builder()
-            .model(model)
-            .modelClass(this.modelClass)
-            .tableName(this.tableName)
-            .pkName(this.primaryKeyColumn)
-            .conditionSQL(this.conditionSQL)
-            .build();
-        return Balala.me().getDialect().delete(sqlParams);
+        Object columns = conditionSQL.length() > 0 ? null : nonNullColumns(model);
+        return SQLCache.get(() -> {
+            SQLParams sqlParams = SQLParams.builder()
+                .model(model)
+                .modelClass(this.modelClass)
+                .tableName(this.tableName)
+                .pkName(this.primaryKeyColumn)
+                .conditionSQL(this.conditionSQL)
+                .build();
+            return dialect().delete(sqlParams);
+        }, "delete", dialect(), modelClass, tableName, columns, conditionSQL);
+    }
+
+    /**
+     * The columns a model-based statement renders, part of its SQL shape.
+     */
+    private BitSet nonNullColumns(Object model) {
+        BitSet columns = new BitSet();
+        if (null == model) {
+            return columns;
+        }
+        List<ColumnMeta> columnMetas = AnimaCache.getModelMeta(this.modelClass).getColumns();
+        for (int i = 0; i < columnMetas.size(); i++) {
+            if (null != columnMetas.get(i).getValue(model)) {
+                columns.set(i);
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Record a write before it is sent, see {@link #written()}. Inside a transaction, the
+     * table is recorded once more when it commits, however many statements wrote it.
+     */
+    private void beforeWrite() {
+        this.written();
+        if (null != tx && null != tableName) {
+            tx.afterCommit("written " + tableName, this::written);
+        }
+    }
+
+    /**
+     * Record a write, before it is sent and once it succeeded: drop the cached query results
+     * of the table and pin the reads of the session to the primary.
+     */
+    private void written() {
+        if (null != tableName) {
+            QueryCache.invalidate(String.valueOf(cacheOwner().scope(tableName)));
+        }
+        if (this.isScatter()) {
+            Sharding.shards(modelClass).forEach(shard -> shard.getRouter().written(session));
+        } else {
+            balala().getRouter().written(session);
+        }
+    }
+
+    /**
+     * Record a write once it succeeded.
+     */
+    private <R> Future<R> written(Future<R> write) {
+        return write.map(result -> {
+            this.written();
+            return result;
+        });
+    }
+
+    /**
+     * Drop the rows a write touches from the entity cache, now and once the write succeeded.
+     *
+     * @param id    primary key of the written row, null when any row may be touched
+     * @param write the write
+     * @return the write
+     */
+    private <R> Future<R> evict(Object id, Future<R> write) {
+        this.evict(id);
+        return write.map(result -> {
+            if (null != modelClass && EntityCache.isEnabled(modelClass)) {
+                this.invalidate(id);
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Drop the rows a write touches from the entity cache, and once more when the
+     * transaction commits.
+     */
+    private void evict(Object id) {
+        if (null == modelClass || !EntityCache.isEnabled(modelClass)) {
+            return;
+        }
+        this.invalidate(id);
+        if (null != tx) {
+            tx.afterCommit("evict " + modelClass.getName() + " " + id, () -> this.invalidate(id));
+        }
+    }
+
+    private void invalidate(Object id) {
+        if (null != id) {
+            EntityCache.invalidate(modelClass, cacheOwner().scope(id));
+        } else {
+            EntityCache.invalidateAll(modelClass);
+        }
+    }
+
+    private Object primaryKey(Object model) {
+        ColumnMeta pk = AnimaCache.getModelMeta(model.getClass()).getPkField();
+        return null == pk ? null : pk.getValue(model);
+    }
+
+    private Balala balala() {
+        if (null != balala) {
+            return balala;
+        }
+        if (null != shard) {
+            return shard;
+        }
+        if (null != modelClass && Sharding.isSharded(modelClass)) {
+            return Sharding.shards(modelClass).get(0);
+        }
+        balala = Balala.me();
+        return balala;
+    }
+
+    private Balala cacheOwner() {
+        return Sharding.cacheOwner(modelClass, balala());
+    }
+
+    /**
+     * Route the statement to one shard when the condition fixes the shard key, "column" or "column = ?".
+     */
+    private void shardBy(String statement, Object value) {
+        if (null != balala || null == modelClass || !Sharding.isSharded(modelClass)) {
+            return;
+        }
+        String column = statement.trim();
+        if (column.endsWith("?")) {
+            column = column.substring(0, column.length() - 1).trim();
+            if (!column.endsWith("=") || column.endsWith("!=") || column.endsWith("<=") || column.endsWith(">=")) {
+                return;
+            }
+            column = column.substring(0, column.length() - 1).trim();
+        }
+        if (column.equalsIgnoreCase(Sharding.getColumn(modelClass))) {
+            this.shard = Sharding.shard(modelClass, value);
+        }
+    }
+
+    /**
+     * Route the statement to the shard of a model.
+     *
+     * @param required whether a model without shard key fails, instead of writing every shard
+     */
+    private void shardBy(Object model, boolean required) {
+        if (null != balala || !Sharding.isSharded(model.getClass())) {
+            return;
+        }
+        if (required || null != Sharding.keyOf(model)) {
+            this.shard = Sharding.shardOf(model);
+        }
+    }
+
+    /**
+     * A sharded model written without its shard key is written on every shard.
+     */
+    private boolean isScatter() {
+        return null == balala && null == shard && null != modelClass && Sharding.isSharded(modelClass);
+    }
+
+    private Future<Integer> executeOnShards(String sql, JsonArray columnValue) {
+        List<Future> writes = new ArrayList<>();
+        for (Balala shard : Sharding.shards(modelClass)) {
+            writes.add(this.onShard(shard).execute(sql, columnValue));
+        }
+        return CompositeFuture.all(writes).map(all -> {
+            int rows = 0;
+            for (int i = 0; i < all.size(); i++) {
+                rows += all.<Integer>resultAt(i);
+            }
+            return rows;
+        });
+    }
+
+    /**
+     * Split a batch of a sharded model by shard, each shard runs its part as a batch of its own.
+     */
+    private <S extends Model> Future<BatchResult> batchOnShards(List<S> models, BiFunction<BalalaUpdate<T>, List<S>, Future<BatchResult>> batch) {
+        Map<Balala, List<S>> parts = new LinkedHashMap<>();
+        for (S model : models) {
+            parts.computeIfAbsent(Sharding.shardOf(model), shard -> new ArrayList<>()).add(model);
+        }
+        List<Future> batches = new ArrayList<>(parts.size());
+        parts.forEach((shard, part) -> batches.add(batch.apply(this.onShard(shard), part)));
+        return CompositeFuture.all(batches).map(all -> {
+            List<UpdateResult> chunks = new ArrayList<>();
+            for (int i = 0; i < all.size(); i++) {
+                chunks.addAll(all.<BatchResult>resultAt(i).getChunks());
+            }
+            return new BatchResult(chunks);
+        });
+    }
+
+    /**
+     * The statement for one shard, with the timeout and session of this one.
+     */
+    private BalalaUpdate<T> onShard(Balala shard) {
+        return new BalalaUpdate<T>().using(shard).parse(modelClass).timeout(Duration.ofMillis(timeout)).session(session);
+    }
+
+    private Dialect dialect() {
+        return balala().getDialect();
     }
 
     private SQLClient getSqlClient(){
-        return Balala.me().getSqlClient();
+        return balala().getSqlClient();
+    }
+
+    /**
+     * Run a statement through the executor of the instance, on the connection of the
+     * transaction if any.
+     */
+    private Future<UpdateResult> run(DMLType type, String sql, JsonArray params) {
+        return balala().getExecutor().update(null != tx ? tx.getConnection() : getSqlClient(), modelClass, type, sql, params, timeout);
+    }
+
+    private static DMLType dmlType(String sql) {
+        String statement = sql.trim();
+        if (statement.regionMatches(true, 0, "DELETE", 0, 6)) {
+            return DMLType.DELETE;
+        }
+        if (statement.regionMatches(true, 0, "INSERT", 0, 6)) {
+            return DMLType.INSERT;
+        }
+        return DMLType.UPDATE;
+    }
+
+    /**
+     * Chunks of a batch in flight at once, one in a transaction since it has a single connection.
+     */
+    private int batchConcurrency() {
+        return null != tx ? 1 : balala().getBatchConcurrency();
     }
 
     /**
@@ -334,49 +703,182 @@ public class BalalaUpdate<T extends Model> {
     }
 
     /**
-     * 批量保存
-     * @param models
-     * @param <T>
-     * @return
+     * Batch save models with multi-row inserts.
+     * <p>
+     * The models are split into chunks of at most {@link Balala#getBatchSize()} rows, capped
+     * by the dialect's parameter and row limits, and up to {@link Balala#getBatchConcurrency()}
+     * chunks are sent at once over pooled connections. Works with the async MySQL / PostgreSQL
+     * client as well as JDBC.
+     *
+     * @param models model list
+     * @param <S>
+     * @return per-chunk results and generated keys
      */
-    public <T extends Model> Future<Integer> saveBatch(List<T> models,Class type){
-        this.tableName = AnimaCache.getTableName(type);
-        Future future = Future.future();
-        T t = models.get(0);
-        this.modelClass = type;
-        String sql = buildInsertSQL(t);
-        List<JsonArray> batchValue = new LinkedList<>();
-        models.forEach(model -> {
-            JsonArray columnValueList = AnimaUtils.toColumnValues(model, true);
-            batchValue.add(columnValueList);
-        });
-        SQLClient sqlClient = getSqlClient();
-        sqlClient.getConnection(res -> {
-            if (res.succeeded()){
-                SQLConnection connection = res.result();
-                connection.setAutoCommit(true, auto -> {
-                    if (auto.succeeded()){
-                        System.out.println(sql);
-                        connection.batchWithParams(sql,batchValue, batchRes -> {
-                            batchRes.result().forEach(s -> System.out.println(s));
-                            if (batchRes.succeeded()){
-                                future.complete(batchRes.result());
-                            }else{
-                                future.fail(batchRes.cause());
-                            }
-                        });
-                    }else {
-                        future.fail(auto.cause());
-                    }
-                    connection.close();
-                });
-            }else {
-                res.cause().printStackTrace();
-                future.fail(res.cause());
+    public <S extends Model> Future<BatchResult> saveBatch(List<S> models) {
+        this.beforeCheck();
+        if (this.isScatter()) {
+            return this.batchOnShards(models, BalalaUpdate::saveBatch);
+        }
+        int chunkSize = this.chunkSize(AnimaCache.getModelMeta(modelClass).getColumns().size());
+        this.beforeWrite();
+        return this.written(new BatchStatement<>((sql, params) -> this.run(DMLType.INSERT, sql, params), models, chunkSize, this::buildInsertBatchSQL, this::insertValues)
+                .execute(this.batchConcurrency()));
+    }
+
+    /**
+     * Batch save models of the given type.
+     *
+     * @param models model list
+     * @param type   model class
+     * @param <S>
+     * @return per-chunk results and generated keys
+     * @see #saveBatch(List)
+     */
+    @SuppressWarnings("unchecked")
+    public <S extends Model> Future<BatchResult> saveBatch(List<S> models, Class type) {
+        this.parse(type);
+        return this.saveBatch(models);
+    }
+
+    /**
+     * Batch insert models, updating the rows that already exist, with the dialect's
+     * native upsert (ON DUPLICATE KEY, ON CONFLICT or MERGE). Chunked like {@link #saveBatch(List)}.
+     *
+     * @param models          model list
+     * @param conflictColumns unique columns identifying an existing row, the primary key when empty
+     * @param updateColumns   columns overwritten on conflict, all other columns but the primary key when empty
+     * @param <S>
+     * @return per-chunk results and generated keys
+     */
+    public <S extends Model> Future<BatchResult> upsertBatch(List<S> models, List<String> conflictColumns, List<String> updateColumns) {
+        this.beforeCheck();
+        if (this.isScatter()) {
+            return this.batchOnShards(models, (update, part) -> update.upsertBatch(part, conflictColumns, updateColumns));
+        }
+        ModelMeta    modelMeta = AnimaCache.getModelMeta(modelClass);
+        List<String> conflict  = AnimaUtils.isEmpty(conflictColumns)
+                ? Collections.singletonList(primaryKeyColumn) : new ArrayList<>(conflictColumns);
+        List<String> update    = new ArrayList<>(AnimaUtils.isEmpty(updateColumns) ? modelMeta.getColumnNames() : updateColumns);
+        update.removeAll(conflict);
+        if (AnimaUtils.isEmpty(updateColumns)) {
+            update.remove(primaryKeyColumn);
+        }
+
+        IntFunction<String> sqlBuilder = rows -> SQLCache.get(() -> {
+            SQLParams sqlParams = SQLParams.builder()
+                .modelClass(this.modelClass)
+                .tableName(this.tableName)
+                .pkName(this.primaryKeyColumn)
+                .build();
+            return dialect().upsertBatch(sqlParams, rows, conflict, update);
+        }, "upsertBatch", dialect(), modelClass, tableName, rows, conflict, update);
+
+        int chunkSize = this.chunkSize(modelMeta.getColumns().size());
+        this.beforeWrite();
+        return this.evict(null, this.written(new BatchStatement<>((sql, params) -> this.run(DMLType.INSERT, sql, params), models, chunkSize, sqlBuilder, this::insertValues)
+                .execute(this.batchConcurrency())));
+    }
+
+    /**
+     * Batch update models by primary key, one statement per chunk. As with
+     * {@link #updateByModel(Model)}, null fields are left unchanged.
+     *
+     * @param models model list, each with a primary key
+     * @param <S>
+     * @return per-chunk results
+     */
+    public <S extends Model> Future<BatchResult> updateBatch(List<S> models) {
+        this.beforeCheck();
+        if (this.isScatter()) {
+            return this.batchOnShards(models, BalalaUpdate::updateBatch);
+        }
+        ModelMeta  modelMeta = AnimaCache.getModelMeta(modelClass);
+        ColumnMeta pk        = modelMeta.getPkField();
+        if (null == pk) {
+            throw new AnimaException(modelClass.getName() + " has no primary key field");
+        }
+        for (S model : models) {
+            if (null == pk.getValue(model)) {
+                throw new AnimaException("updateBatch requires a primary key on every model");
             }
-        });
-        return future;
+        }
+
+        IntFunction<String> sqlBuilder = rows -> SQLCache.get(() -> {
+            SQLParams sqlParams = SQLParams.builder()
+                .modelClass(this.modelClass)
+                .tableName(this.tableName)
+                .pkName(this.primaryKeyColumn)
+                .build();
+            return dialect().updateBatch(sqlParams, rows);
+        }, "updateBatch", dialect(), modelClass, tableName, rows);
+
+        int chunkSize = this.chunkSize(2 * (modelMeta.getColumns().size() - 1) + 1);
+        this.beforeWrite();
+        return this.evict(null, this.written(new BatchStatement<>((sql, params) -> this.run(DMLType.UPDATE, sql, params), models, chunkSize, sqlBuilder, this::updateValues)
+                .execute(this.batchConcurrency())));
+    }
+
+    /**
+     * Rows of one chunk: the batch size, capped by the dialect's row and parameter limits.
+     */
+    private int chunkSize(int paramsPerRow) {
+        Dialect dialect   = dialect();
+        int     chunkSize = Math.min(balala().getBatchSize(), dialect.maxBatchRows());
+        return Math.max(1, Math.min(chunkSize, dialect.maxParameters() / Math.max(1, paramsPerRow)));
     }
+
+    private <S extends Model> JsonArray insertValues(List<S> models) {
+        JsonArray params = new JsonArray();
+        for (S model : models) {
+            params.addAll(AnimaUtils.toColumnValues(model, true));
+        }
+        return params;
+    }
+
+    /**
+     * @see Dialect#updateBatch(SQLParams, int)
+     */
+    private <S extends Model> JsonArray updateValues(List<S> models) {
+        ModelMeta  modelMeta = AnimaCache.getModelMeta(modelClass);
+        ColumnMeta pk        = modelMeta.getPkField();
+        JsonArray  params    = new JsonArray();
+        for (ColumnMeta column : modelMeta.getColumns()) {
+            if (column == pk) {
+                continue;
+            }
+            for (S model : models) {
+                params.add(pk.toColumnValue(pk.getValue(model)));
+                Object value = column.getValue(model);
+                if (null != value) {
+                    params.add(column.toColumnValue(value));
+                } else {
+                    params.addNull();
+                }
+            }
+        }
+        for (S model : models) {
+            params.add(pk.toColumnValue(pk.getValue(model)));
+        }
+        return params;
+    }
+
+    /**
+     * Build a multi-row insert statement.
+     *
+     * @param rows rows in the statement
+     * @return insert sql
+     */
+    private String buildInsertBatchSQL(int rows) {
+        return SQLCache.get(() -> {
+            SQLParams sqlParams = SQLParams.builder()
+                .modelClass(this.modelClass)
+                .tableName(this.tableName)
+                .pkName(this.primaryKeyColumn)
+                .build();
+            return dialect().insertBatch(sqlParams, rows);
+        }, "insertBatch", dialect(), modelClass, tableName, rows);
+    }
+
     /**
      * Clear the battlefield after a database operation.
      *
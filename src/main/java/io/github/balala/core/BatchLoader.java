@@ -0,0 +1,142 @@
+package io.github.balala.core;
+
+import io.github.balala.Balala;
+import io.github.balala.Model;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonArray;
+import io.vertx.ext.sql.ResultSet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Batch Loader
+ * <p>
+ * Collects the byId lookups of one model and instance issued on one context within a tick, or within
+ * {@link Balala#getBatchLoadWindow()} milliseconds, and sends them as chunked IN queries.
+ * Each caller gets a one-row result set holding its row, or an empty one.
+ *
+ * @author yizmao
+ */
+final class BatchLoader {
+
+    private static final String CONTEXT_KEY = "balala.batchloader";
+
+    private final Context                              context;
+    private final Balala                               balala;
+    private final Class<? extends Model>               modelClass;
+    private       Map<String, Object>                  ids     = new LinkedHashMap<>();
+    private       Map<String, List<Future<ResultSet>>> waiters = new HashMap<>();
+    private       boolean                              scheduled;
+
+    private BatchLoader(Context context, Balala balala, Class<? extends Model> modelClass) {
+        this.context = context;
+        this.balala = balala;
+        this.modelClass = modelClass;
+    }
+
+    /**
+     * Load a row by primary key through the loader of the context.
+     *
+     * @param context    current context
+     * @param balala     instance the lookup runs on
+     * @param modelClass model class
+     * @param id         primary key value
+     * @return one-row result set, empty when not found
+     */
+    static Future<ResultSet> load(Context context, Balala balala, Class<? extends Model> modelClass, Object id) {
+        Map<String, BatchLoader> loaders = context.get(CONTEXT_KEY);
+        if (null == loaders) {
+            loaders = new HashMap<>();
+            context.put(CONTEXT_KEY, loaders);
+        }
+        String      key    = balala.getName() + ':' + modelClass.getName();
+        BatchLoader loader = loaders.get(key);
+        if (null == loader) {
+            loader = new BatchLoader(context, balala, modelClass);
+            loaders.put(key, loader);
+        }
+        return loader.load(id);
+    }
+
+    private Future<ResultSet> load(Object id) {
+        Future<ResultSet> future = Future.future();
+        String            key    = String.valueOf(id);
+        ids.putIfAbsent(key, id);
+        waiters.computeIfAbsent(key, k -> new ArrayList<>(1)).add(future);
+
+        if (ids.size() >= balala.getBatchLoadSize()) {
+            this.dispatch();
+        } else if (!scheduled) {
+            scheduled = true;
+            if (balala.getBatchLoadWindow() > 0) {
+                context.owner().setTimer(balala.getBatchLoadWindow(), timer -> this.dispatch());
+            } else {
+                context.runOnContext(v -> this.dispatch());
+            }
+        }
+        return future;
+    }
+
+    private void dispatch() {
+        scheduled = false;
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<Object>                         ids     = new ArrayList<>(this.ids.values());
+        Map<String, List<Future<ResultSet>>> waiters = this.waiters;
+        this.ids = new LinkedHashMap<>();
+        this.waiters = new HashMap<>();
+
+        String pkColumn  = AnimaCache.getPKColumn(modelClass);
+        int    chunkSize = Math.max(1, Math.min(balala.getBatchLoadSize(), balala.getDialect().maxParameters()));
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Object> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+            this.query(modelClass).in(pkColumn, chunk).resultSet().setHandler(res -> {
+                if (res.succeeded()) {
+                    this.demultiplex(res.result(), pkColumn, chunk, waiters);
+                } else {
+                    for (Object id : chunk) {
+                        waiters.get(String.valueOf(id)).forEach(future -> future.fail(res.cause()));
+                    }
+                }
+            });
+        }
+    }
+
+    private <T extends Model> BalalaQuery<T> query(Class<T> modelClass) {
+        return new BalalaQuery<T>().using(balala).parse(modelClass);
+    }
+
+    private void demultiplex(ResultSet resultSet, String pkColumn, List<Object> chunk,
+                             Map<String, List<Future<ResultSet>>> waiters) {
+        List<String> columnNames = resultSet.getColumnNames();
+        int          pkIndex     = -1;
+        for (int i = 0; i < columnNames.size(); i++) {
+            if (columnNames.get(i).equalsIgnoreCase(pkColumn)) {
+                pkIndex = i;
+                break;
+            }
+        }
+        Map<String, JsonArray> rows = new HashMap<>(resultSet.getNumRows() * 2);
+        if (pkIndex >= 0) {
+            for (JsonArray row : resultSet.getResults()) {
+                rows.put(String.valueOf(row.getValue(pkIndex)), row);
+            }
+        }
+        for (Object id : chunk) {
+            String    key = String.valueOf(id);
+            JsonArray row = rows.get(key);
+            for (Future<ResultSet> future : waiters.get(key)) {
+                List<JsonArray> results = null == row ? Collections.emptyList() : Collections.singletonList(row.copy());
+                future.complete(new ResultSet(columnNames, results, null));
+            }
+        }
+    }
+
+}
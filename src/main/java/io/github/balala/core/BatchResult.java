@@ -0,0 +1,52 @@
+package io.github.balala.core;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.ext.sql.UpdateResult;
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Batch Result
+ * <p>
+ * The outcome of a chunked batch statement, one {@link UpdateResult} per chunk in input order.
+ *
+ * @author yizmao
+ */
+@Getter
+public class BatchResult {
+
+    private final List<UpdateResult> chunks;
+
+    public BatchResult(List<UpdateResult> chunks) {
+        this.chunks = Collections.unmodifiableList(chunks);
+    }
+
+    /**
+     * @return affected rows of all chunks
+     */
+    public int getUpdated() {
+        int updated = 0;
+        for (UpdateResult chunk : chunks) {
+            updated += chunk.getUpdated();
+        }
+        return updated;
+    }
+
+    /**
+     * Generated keys of all chunks, as far as the driver reports them for a multi-row insert.
+     *
+     * @return keys in input order
+     */
+    public JsonArray getKeys() {
+        JsonArray keys = new JsonArray();
+        for (UpdateResult chunk : chunks) {
+            if (null != chunk.getKeys()) {
+                keys.addAll(chunk.getKeys());
+            }
+        }
+        return keys;
+    }
+
+}
@@ -0,0 +1,99 @@
+package io.github.balala.core;
+
+import io.github.balala.Model;
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonArray;
+import io.vertx.ext.sql.UpdateResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Batch Statement
+ * <p>
+ * Splits the models into multi-row statements and pipelines them over the pool: at most
+ * {@code concurrency} chunks are in flight, and each completed chunk sends the next one.
+ * Outside a transaction chunks run in autocommit, so a failure leaves earlier chunks applied.
+ * A chunk that cannot be built or sent fails the batch, like a chunk the database rejects.
+ *
+ * @author yizmao
+ */
+class BatchStatement<S extends Model> {
+
+    private final BiFunction<String, JsonArray, Future<UpdateResult>> statement;
+    private final List<S>                                             models;
+    private final int                                                 chunkSize;
+    private final IntFunction<String>                                 sqlBuilder;
+    private final Function<List<S>, JsonArray>                        paramsBuilder;
+    private final AtomicReferenceArray<UpdateResult>                  results;
+    private final AtomicInteger                                       next   = new AtomicInteger();
+    private final AtomicInteger                                       done   = new AtomicInteger();
+    private final Future<BatchResult>                                 future = Future.future();
+
+    /**
+     * @param statement     runs a chunk on a pooled connection, or on the connection of a transaction
+     * @param models        models of the batch
+     * @param chunkSize     max rows of one statement
+     * @param sqlBuilder    sql for a given row count
+     * @param paramsBuilder params of the models of a chunk
+     */
+    BatchStatement(BiFunction<String, JsonArray, Future<UpdateResult>> statement, List<S> models, int chunkSize,
+                   IntFunction<String> sqlBuilder, Function<List<S>, JsonArray> paramsBuilder) {
+        this.statement = statement;
+        this.models = models;
+        this.chunkSize = chunkSize;
+        this.sqlBuilder = sqlBuilder;
+        this.paramsBuilder = paramsBuilder;
+        this.results = new AtomicReferenceArray<>((models.size() + chunkSize - 1) / chunkSize);
+    }
+
+    Future<BatchResult> execute(int concurrency) {
+        if (results.length() == 0) {
+            future.complete(new BatchResult(new ArrayList<>()));
+            return future;
+        }
+        int inFlight = Math.min(Math.max(1, concurrency), results.length());
+        for (int i = 0; i < inFlight; i++) {
+            this.send();
+        }
+        return future;
+    }
+
+    private void send() {
+        int chunk = next.getAndIncrement();
+        if (chunk >= results.length() || future.isComplete()) {
+            return;
+        }
+        int from = chunk * chunkSize;
+        int to   = Math.min(from + chunkSize, models.size());
+        Future<UpdateResult> sent;
+        try {
+            sent = statement.apply(sqlBuilder.apply(to - from), paramsBuilder.apply(models.subList(from, to)));
+        } catch (Exception e) {
+            future.tryFail(e);
+            return;
+        }
+        sent.setHandler(res -> {
+            if (res.failed()) {
+                future.tryFail(res.cause());
+                return;
+            }
+            results.set(chunk, res.result());
+            if (done.incrementAndGet() == results.length()) {
+                List<UpdateResult> chunks = new ArrayList<>(results.length());
+                for (int i = 0; i < results.length(); i++) {
+                    chunks.add(results.get(i));
+                }
+                future.tryComplete(new BatchResult(chunks));
+            } else {
+                this.send();
+            }
+        });
+    }
+
+}
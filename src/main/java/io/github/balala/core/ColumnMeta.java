@@ -0,0 +1,79 @@
+package io.github.balala.core;
+
+import io.github.balala.annotation.EnumMapping;
+import io.github.balala.core.accessor.PropertyAccessor;
+import io.github.balala.core.accessor.PropertyAccessors;
+import io.github.balala.utils.AnimaUtils;
+import lombok.Getter;
+
+import java.lang.reflect.Field;
+
+/**
+ * Column Meta
+ * <p>
+ * A model field resolved once: column name, enum mapping and generated accessor.
+ *
+ * @author yizmao
+ */
+@Getter
+public class ColumnMeta {
+
+    private final Field   field;
+    private final String  fieldName;
+    private final String  columnName;
+    private final Class<?> fieldType;
+
+    /**
+     * @see EnumMapping, null when the field is not annotated
+     */
+    private final String enumMapping;
+
+    private final PropertyAccessor accessor;
+
+    ColumnMeta(Field field) {
+        this.field = field;
+        this.fieldName = field.getName();
+        this.columnName = AnimaUtils.toColumnName(field);
+        this.fieldType = field.getType();
+        EnumMapping mapping = field.getAnnotation(EnumMapping.class);
+        this.enumMapping = null != mapping ? mapping.value() : null;
+        this.accessor = PropertyAccessors.create(field);
+    }
+
+    /**
+     * Read the raw field value of the model.
+     *
+     * @param model model instance
+     * @return field value
+     */
+    public Object getValue(Object model) {
+        return accessor.get(model);
+    }
+
+    /**
+     * Write the raw field value of the model.
+     *
+     * @param model model instance
+     * @param value field value
+     */
+    public void setValue(Object model, Object value) {
+        accessor.set(model, value);
+    }
+
+    /**
+     * Convert a field value to the value bound to the statement.
+     *
+     * @param value field value, not null
+     * @return column value
+     */
+    public Object toColumnValue(Object value) {
+        if (value instanceof Enum) {
+            if (EnumMapping.ORDINAL.equals(enumMapping)) {
+                return ((Enum<?>) value).ordinal();
+            }
+            return value.toString();
+        }
+        return value;
+    }
+
+}
@@ -0,0 +1,71 @@
+package io.github.balala.core;
+
+import io.vertx.core.json.JsonArray;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Totals of page queries reused within a TTL, keyed by instance, count statement and params.
+ *
+ * @author yizmao
+ */
+final class CountCache {
+
+    private static final int MAX_ENTRIES = 10_000;
+    private static final int EVICT_SLICE = MAX_ENTRIES / 16;
+
+    private static final Map<String, long[]> CACHE = new ConcurrentHashMap<>(64);
+
+    private CountCache() {
+    }
+
+    /**
+     * @return cached total, null when absent or expired
+     */
+    static Long get(String scope, String sql, JsonArray params) {
+        long[] entry = CACHE.get(key(scope, sql, params));
+        if (null == entry || entry[1] < System.currentTimeMillis()) {
+            return null;
+        }
+        return entry[0];
+    }
+
+    static void put(String scope, String sql, JsonArray params, long count, long ttl) {
+        if (CACHE.size() >= MAX_ENTRIES) {
+            long now = System.currentTimeMillis();
+            CACHE.values().removeIf(entry -> entry[1] < now);
+            if (CACHE.size() >= MAX_ENTRIES) {
+                evictSoonestExpiring();
+            }
+        }
+        CACHE.put(key(scope, sql, params), new long[]{count, System.currentTimeMillis() + ttl});
+    }
+
+    /**
+     * Evict the slice of entries closest to expiry, the oldest ones under a common TTL, so that
+     * a full cache keeps the bulk of its totals and the next puts do not scan again.
+     */
+    private static void evictSoonestExpiring() {
+        long[] expiries = new long[CACHE.size()];
+        int    size     = 0;
+        for (long[] entry : CACHE.values()) {
+            if (size == expiries.length) {
+                break;
+            }
+            expiries[size++] = entry[1];
+        }
+        if (size == 0) {
+            return;
+        }
+        Arrays.sort(expiries, 0, size);
+        long cutoff = expiries[Math.min(size, EVICT_SLICE) - 1];
+        CACHE.values().removeIf(entry -> entry[1] <= cutoff);
+    }
+
+    private static String key(String scope, String sql, JsonArray params) {
+        return scope + '\u0000' + sql + '\u0000' + params.encode();
+    }
+
+}
@@ -0,0 +1,110 @@
+package io.github.balala.core;
+
+import io.github.balala.exception.AnimaException;
+import io.vertx.core.json.JsonArray;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Keyset
+ * <p>
+ * Turns an order by clause into a seek predicate. The order columns, completed with the
+ * primary key as tie-breaker, are compared against the values of the last row returned,
+ * which travel in an opaque cursor. Order columns must be plain, non-null columns.
+ *
+ * @author yizmao
+ */
+class Keyset {
+
+    private final List<String>  columns    = new ArrayList<>(4);
+    private final List<Boolean> descending = new ArrayList<>(4);
+
+    Keyset(String orderBy, String primaryKeyColumn) {
+        if (null != orderBy) {
+            for (String part : orderBy.split(",")) {
+                String[] words = part.trim().split("\\s+");
+                if (words[0].isEmpty()) {
+                    continue;
+                }
+                if (words.length > 2 || (words.length == 2 && !words[1].matches("(?i)asc|desc"))) {
+                    throw new AnimaException("Keyset paging only supports plain order columns, but got: " + part.trim());
+                }
+                columns.add(words[0]);
+                descending.add(words.length == 2 && words[1].equalsIgnoreCase("desc"));
+            }
+        }
+        if (columns.stream().noneMatch(primaryKeyColumn::equalsIgnoreCase)) {
+            columns.add(primaryKeyColumn);
+            descending.add(false);
+        }
+    }
+
+    /**
+     * The order by clause to page with, in the format of orderBySQL.
+     */
+    String orderBy() {
+        StringBuilder orderBy = new StringBuilder();
+        for (int i = 0; i < columns.size(); i++) {
+            orderBy.append(i == 0 ? " " : ", ").append(columns.get(i)).append(descending.get(i) ? " DESC" : " ASC");
+        }
+        return orderBy.toString();
+    }
+
+    /**
+     * Build "(a > ?) OR (a = ? AND b > ?)" for the cursor values, adding them to params.
+     */
+    String predicate(JsonArray values, JsonArray params) {
+        StringBuilder sql = new StringBuilder();
+        for (int i = 0; i < columns.size(); i++) {
+            sql.append(i == 0 ? "(" : " OR (");
+            for (int j = 0; j < i; j++) {
+                sql.append(columns.get(j)).append(" = ? AND ");
+                params.add(values.getValue(j));
+            }
+            sql.append(columns.get(i)).append(descending.get(i) ? " < ?" : " > ?").append(')');
+            params.add(values.getValue(i));
+        }
+        return sql.toString();
+    }
+
+    JsonArray decode(String cursor) {
+        JsonArray values;
+        try {
+            values = new JsonArray(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            throw new AnimaException("Invalid keyset cursor: " + cursor, e);
+        }
+        if (values.size() != columns.size()) {
+            throw new AnimaException("Keyset cursor does not match the order of the query: " + cursor);
+        }
+        return values;
+    }
+
+    /**
+     * Encode the key values of a result row as a cursor.
+     *
+     * @param columnNames result column names
+     * @param row         the last row of the page
+     */
+    String encode(List<String> columnNames, JsonArray row) {
+        JsonArray values = new JsonArray();
+        for (String column : columns) {
+            values.add(row.getValue(indexOf(columnNames, column)));
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(values.encode().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static int indexOf(List<String> columnNames, String column) {
+        String name = column.substring(column.lastIndexOf('.') + 1);
+        for (int i = 0; i < columnNames.size(); i++) {
+            if (columnNames.get(i).equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        throw new AnimaException("Keyset column " + column + " must be selected");
+    }
+
+}
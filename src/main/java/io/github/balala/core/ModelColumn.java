@@ -0,0 +1,40 @@
+package io.github.balala.core;
+
+import io.github.balala.Model;
+import lombok.Getter;
+
+/**
+ * Model Column
+ * <p>
+ * A column of a model known at compile time, like the constants of the {@code User_}
+ * metamodel that balala-processor generates for every model. The query builders take it
+ * wherever they take a {@code User::getUsername} lambda, without resolving the lambda:
+ * <pre>
+ * Balala.select().from(User.class).where(User_.USERNAME, "jack").order(User_.ID, OrderBy.DESC).all();
+ * </pre>
+ *
+ * @param <T> model type
+ * @param <R> field type
+ * @author yizmao
+ */
+@Getter
+public final class ModelColumn<T extends Model, R> {
+
+    private final Class<T> modelClass;
+    private final String   fieldName;
+    private final String   columnName;
+    private final Class<R> type;
+
+    public ModelColumn(Class<T> modelClass, String fieldName, String columnName, Class<R> type) {
+        this.modelClass = modelClass;
+        this.fieldName = fieldName;
+        this.columnName = columnName;
+        this.type = type;
+    }
+
+    @Override
+    public String toString() {
+        return columnName;
+    }
+
+}
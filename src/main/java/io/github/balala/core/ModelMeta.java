@@ -0,0 +1,97 @@
+package io.github.balala.core;
+
+import io.github.balala.utils.AnimaUtils;
+import lombok.Getter;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Model Meta
+ * <p>
+ * The column layout of a model class, built once and served by {@link AnimaCache}.
+ *
+ * @author yizmao
+ */
+@Getter
+public class ModelMeta {
+
+    private final Class<?>                modelClass;
+    private final List<ColumnMeta>        columns;
+    private final List<String>            columnNames;
+    private final Map<String, ColumnMeta> columnMap;
+    private final Map<String, ColumnMeta> fieldMap;
+    private final String                  pkColumn;
+
+    /**
+     * Primary key field, null when the model has no field for the pk column
+     */
+    private final ColumnMeta pkField;
+
+    /**
+     * like "id,username,password"
+     */
+    private final String insertColumns;
+
+    /**
+     * like "?,?,?"
+     */
+    private final String insertPlaceholders;
+
+    /**
+     * like "id,username,password", "*" if the model has no column
+     */
+    private final String selectColumns;
+
+    ModelMeta(Class<?> modelClass, String pkColumn) {
+        this.modelClass = modelClass;
+        this.pkColumn = pkColumn;
+
+        List<ColumnMeta>        columns   = new ArrayList<>();
+        Map<String, ColumnMeta> columnMap = new LinkedHashMap<>();
+        Map<String, ColumnMeta> fieldMap  = new LinkedHashMap<>();
+        for (Field field : modelClass.getDeclaredFields()) {
+            if (AnimaUtils.isIgnore(field) || Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            ColumnMeta column = new ColumnMeta(field);
+            columns.add(column);
+            columnMap.put(column.getColumnName(), column);
+            fieldMap.put(column.getFieldName(), column);
+        }
+        this.columns = Collections.unmodifiableList(columns);
+        this.columnNames = Collections.unmodifiableList(new ArrayList<>(columnMap.keySet()));
+        this.columnMap = Collections.unmodifiableMap(columnMap);
+        this.fieldMap = Collections.unmodifiableMap(fieldMap);
+
+        ColumnMeta pk = columnMap.get(pkColumn);
+        if (null == pk) {
+            pk = fieldMap.get(AnimaUtils.toFieldName(pkColumn));
+        }
+        this.pkField = pk;
+
+        StringBuilder columnNames = new StringBuilder();
+        StringBuilder placeholder = new StringBuilder();
+        for (ColumnMeta column : columns) {
+            columnNames.append(',').append(column.getColumnName());
+            placeholder.append(",?");
+        }
+        this.insertColumns = columnNames.length() > 0 ? columnNames.substring(1) : "";
+        this.insertPlaceholders = placeholder.length() > 0 ? placeholder.substring(1) : "";
+        this.selectColumns = columnNames.length() > 0 ? this.insertColumns : "*";
+    }
+
+    public ColumnMeta getColumn(String columnName) {
+        return columnMap.get(columnName);
+    }
+
+    public ColumnMeta getColumnByField(String fieldName) {
+        return fieldMap.get(fieldName);
+    }
+
+}
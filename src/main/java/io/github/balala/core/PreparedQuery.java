@@ -0,0 +1,198 @@
+package io.github.balala.core;
+
+import io.github.balala.Balala;
+import io.github.balala.exception.AnimaException;
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prepared Query
+ * <p>
+ * The final SQL of a query and its parameter slots, built once by {@link BalalaQuery#compile()}.
+ * Instances are immutable: {@code bind} returns a new query sharing the SQL, so one instance
+ * can be kept in a static field and executed from any verticle.
+ * <p>
+ * A "?" is a positional slot, filled in order by the values given to the builder or by
+ * {@link #bind(Object...)}. A ":name" in a statement, like {@code where("age > :age")}, is a named
+ * slot filled by {@link #set(String, Object)}.
+ * <p>
+ * The query runs on the Balala instance it was compiled on.
+ *
+ * @author yizmao
+ */
+public final class PreparedQuery<T> {
+
+    private final Balala       balala;
+    private final Class<T>     type;
+    private final String       sql;
+    private final List<String> slots;
+    private final JsonArray    params;
+
+    PreparedQuery(Balala balala, Class<T> type, String sql, JsonArray values) {
+        List<String> slots = new ArrayList<>();
+        this.balala = balala;
+        this.type = type;
+        this.sql = parse(sql, slots);
+        this.slots = Collections.unmodifiableList(slots);
+
+        JsonArray params   = new JsonArray();
+        int       position = 0;
+        for (String slot : slots) {
+            if (null == slot && position < values.size()) {
+                add(params, values.getValue(position++));
+            } else {
+                params.addNull();
+            }
+        }
+        if (position < values.size()) {
+            throw new AnimaException("The query has " + position + " positional slots but " + values.size() + " values");
+        }
+        this.params = params;
+    }
+
+    private PreparedQuery(PreparedQuery<T> shape, JsonArray params) {
+        this.balala = shape.balala;
+        this.type = shape.type;
+        this.sql = shape.sql;
+        this.slots = shape.slots;
+        this.params = params;
+    }
+
+    /**
+     * Bind all positional slots.
+     *
+     * @param values one value per "?", in order
+     * @return a query with the new values
+     */
+    public PreparedQuery<T> bind(Object... values) {
+        JsonArray params   = new JsonArray();
+        int       position = 0;
+        for (int i = 0; i < slots.size(); i++) {
+            if (null != slots.get(i)) {
+                add(params, this.params.getValue(i));
+            } else if (position < values.length) {
+                add(params, values[position++]);
+            } else {
+                throw new AnimaException("The query has more positional slots than the " + values.length + " values");
+            }
+        }
+        if (position < values.length) {
+            throw new AnimaException("The query has " + position + " positional slots but " + values.length + " values");
+        }
+        return new PreparedQuery<>(this, params);
+    }
+
+    /**
+     * Bind a named slot.
+     *
+     * @param name  slot name, without ":"
+     * @param value slot value
+     * @return a query with the new value
+     */
+    public PreparedQuery<T> set(String name, Object value) {
+        return this.bind(Collections.singletonMap(name, value));
+    }
+
+    /**
+     * Bind named slots.
+     *
+     * @param values values by slot name
+     * @return a query with the new values
+     */
+    public PreparedQuery<T> bind(Map<String, ?> values) {
+        for (String name : values.keySet()) {
+            if (!slots.contains(name)) {
+                throw new AnimaException("The query has no slot named :" + name);
+            }
+        }
+        JsonArray params = new JsonArray();
+        for (int i = 0; i < slots.size(); i++) {
+            String slot = slots.get(i);
+            add(params, null != slot && values.containsKey(slot) ? values.get(slot) : this.params.getValue(i));
+        }
+        return new PreparedQuery<>(this, params);
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * @return a copy of the bound values, one per slot
+     */
+    public JsonArray getParams() {
+        return params.copy();
+    }
+
+    public Future<JsonObject> one() {
+        return new BalalaQuery<>().using(balala).queryOne(sql, params);
+    }
+
+    public Future<List<JsonObject>> all() {
+        return new BalalaQuery<>().using(balala).queryList(sql, params);
+    }
+
+    public Future<T> findOne() {
+        return new BalalaQuery<>().using(balala).queryOne(type, sql, params);
+    }
+
+    public Future<List<T>> findAll() {
+        return new BalalaQuery<>().using(balala).queryList(type, sql, params);
+    }
+
+    public Future<RowStream<JsonObject>> stream() {
+        return new BalalaQuery<>().using(balala).queryStream(sql, params, balala.getFetchSize());
+    }
+
+    public Future<RowStream<T>> findStream() {
+        return new BalalaQuery<>().using(balala).queryStream(type, sql, params, balala.getFetchSize());
+    }
+
+    private static void add(JsonArray params, Object value) {
+        if (null == value) {
+            params.addNull();
+        } else {
+            params.add(value);
+        }
+    }
+
+    /**
+     * Replace ":name" slots with "?" and collect the slots in order, null for a positional one.
+     * Quoted text and "::" casts are left alone.
+     */
+    static String parse(String sql, List<String> slots) {
+        StringBuilder parsed = new StringBuilder(sql.length());
+        char          quote  = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (0 != quote) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"' || c == '`') {
+                quote = c;
+            } else if (c == '?') {
+                slots.add(null);
+            } else if (c == ':' && i + 1 < sql.length() && Character.isJavaIdentifierStart(sql.charAt(i + 1))
+                    && (i == 0 || sql.charAt(i - 1) != ':')) {
+                int end = i + 1;
+                while (end < sql.length() && Character.isJavaIdentifierPart(sql.charAt(end))) {
+                    end++;
+                }
+                slots.add(sql.substring(i + 1, end));
+                parsed.append('?');
+                i = end - 1;
+                continue;
+            }
+            parsed.append(c);
+        }
+        return parsed.toString();
+    }
+
+}
@@ -0,0 +1,240 @@
+package io.github.balala.core;
+
+import io.github.balala.enums.LoadBalance;
+import io.vertx.core.Future;
+import io.vertx.ext.sql.SQLClient;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Replica Router
+ * <p>
+ * Sends reads to the replicas and everything else to the primary. A request that must see
+ * its own writes despite replication lag runs its statements with a {@link Session}: after a
+ * write made with the session, the reads made with it go to the primary for
+ * {@link #getReadYourWritesWindow()} milliseconds. Other requests keep reading from the
+ * replicas. Without replicas, every read goes to the primary.
+ * <pre>
+ * ReplicaRouter.Session session = new ReplicaRouter.Session();
+ * Balala.update().from(User.class).session(session).set("age", 20).where("id", 1).update()
+ *       .compose(rows -> Balala.select().from(User.class).session(session).findById(1));
+ * </pre>
+ *
+ * @author yizmao
+ */
+public class ReplicaRouter {
+
+    private volatile List<Replica> replicas = Collections.emptyList();
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    @Getter
+    @Setter
+    private LoadBalance loadBalance = LoadBalance.ROUND_ROBIN;
+
+    /**
+     * Milliseconds a session reads from the primary after it writes, 0 disables pinning
+     */
+    @Getter
+    @Setter
+    private long readYourWritesWindow = 1000;
+
+    /**
+     * Milliseconds over which the latency of a replica left idle by {@link LoadBalance#LATENCY_WEIGHTED}
+     * drifts back toward the mean of the replicas, so a replica that was slow once gets reads
+     * again and is measured anew; 0 keeps the last measure
+     */
+    @Getter
+    @Setter
+    private long latencyDecayMillis = 10_000;
+
+    public void setReplicas(List<SQLClient> clients) {
+        List<Replica> replicas = new ArrayList<>(clients.size());
+        for (SQLClient client : clients) {
+            replicas.add(new Replica(client));
+        }
+        this.replicas = Collections.unmodifiableList(replicas);
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Run a read on a replica, or on the primary when there is none or the session is pinned.
+     *
+     * @param primary   primary client
+     * @param session   session of the read, null when it need not see earlier writes
+     * @param statement runs the read on the client picked, or borrows a connection for it
+     * @param <R>       result of the read
+     * @return result of the read
+     */
+    public <R> Future<R> query(SQLClient primary, Session session, Function<SQLClient, Future<R>> statement) {
+        Replica replica = this.pick(session);
+        if (null == replica) {
+            return statement.apply(primary);
+        }
+        Future<R> future = Future.future();
+        long              start  = replica.begin();
+        statement.apply(replica.client).setHandler(res -> {
+            replica.end(start);
+            future.handle(res);
+        });
+        return future;
+    }
+
+    /**
+     * @param session session of the read, null when none
+     * @return whether the read goes to the primary, because there is no replica or the session is pinned
+     */
+    public boolean readsPrimary(Session session) {
+        return replicas.isEmpty() || (null != session && session.isPinned());
+    }
+
+    /**
+     * Pin the reads of a session to the primary for the read-your-writes window.
+     *
+     * @param session session of the write, null when none
+     */
+    public void written(Session session) {
+        if (null != session && readYourWritesWindow > 0) {
+            session.pin(System.currentTimeMillis() + readYourWritesWindow);
+        }
+    }
+
+    private Replica pick(Session session) {
+        List<Replica> replicas = this.replicas;
+        if (this.readsPrimary(session)) {
+            return null;
+        }
+        if (replicas.size() == 1) {
+            return replicas.get(0);
+        }
+        switch (loadBalance) {
+            case LEAST_IN_FLIGHT:
+                return leastInFlight(replicas);
+            case LATENCY_WEIGHTED:
+                return this.latencyWeighted(replicas);
+            default:
+                return replicas.get((next.getAndIncrement() & Integer.MAX_VALUE) % replicas.size());
+        }
+    }
+
+    private static Replica leastInFlight(List<Replica> replicas) {
+        int     offset = ThreadLocalRandom.current().nextInt(replicas.size());
+        Replica best   = null;
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((offset + i) % replicas.size());
+            if (null == best || replica.inFlight.get() < best.inFlight.get()) {
+                best = replica;
+            }
+        }
+        return best;
+    }
+
+    private Replica latencyWeighted(List<Replica> replicas) {
+        double mean = 0;
+        for (Replica replica : replicas) {
+            mean += replica.latencyMillis / replicas.size();
+        }
+        long     now     = System.nanoTime();
+        double[] weights = new double[replicas.size()];
+        double   total   = 0;
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = 1 / Math.max(replicas.get(i).decay(mean, now, latencyDecayMillis), 0.01);
+            total += weights[i];
+        }
+        double point = ThreadLocalRandom.current().nextDouble(total);
+        for (int i = 0; i < weights.length; i++) {
+            point -= weights[i];
+            if (point < 0) {
+                return replicas.get(i);
+            }
+        }
+        return replicas.get(weights.length - 1);
+    }
+
+    /**
+     * The statements of one request that must read its own writes. Writes made with the session
+     * pin its reads to the primary, whatever the context or event loop serving them.
+     */
+    public static class Session {
+
+        private volatile long primaryUntil;
+
+        /**
+         * @return whether the reads of the session go to the primary
+         */
+        public boolean isPinned() {
+            return primaryUntil > System.currentTimeMillis();
+        }
+
+        private synchronized void pin(long until) {
+            primaryUntil = Math.max(primaryUntil, until);
+        }
+    }
+
+    /**
+     * A replica client with its load: queries in flight and an exponentially weighted
+     * moving average of its latency, decaying toward the mean while the replica is idle.
+     */
+    public static class Replica {
+
+        private static final double ALPHA = 0.2;
+
+        @Getter
+        private final SQLClient     client;
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private volatile double latencyMillis = 1;
+        private          long   decayedAt     = System.nanoTime();
+
+        Replica(SQLClient client) {
+            this.client = client;
+        }
+
+        public int getInFlight() {
+            return inFlight.get();
+        }
+
+        public double getLatencyMillis() {
+            return latencyMillis;
+        }
+
+        private long begin() {
+            inFlight.incrementAndGet();
+            return System.nanoTime();
+        }
+
+        private synchronized void end(long start) {
+            inFlight.decrementAndGet();
+            double millis = (System.nanoTime() - start) / 1_000_000d;
+            latencyMillis = latencyMillis + ALPHA * (millis - latencyMillis);
+        }
+
+        /**
+         * Move the latency toward the mean by the time elapsed since the last decay.
+         *
+         * @return latency after decay
+         */
+        private synchronized double decay(double mean, long now, long decayMillis) {
+            if (now <= decayedAt) {
+                return latencyMillis;
+            }
+            if (decayMillis > 0) {
+                double elapsed = (now - decayedAt) / 1_000_000d;
+                latencyMillis = mean + (latencyMillis - mean) * Math.exp(-elapsed / decayMillis);
+            }
+            decayedAt = now;
+            return latencyMillis;
+        }
+    }
+
+}
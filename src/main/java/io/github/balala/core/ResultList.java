@@ -16,7 +16,9 @@
 package io.github.balala.core;
 
 
+import io.github.balala.Balala;
 import io.github.balala.Model;
+import io.github.balala.Transaction;
 import io.github.balala.page.Page;
 import io.github.balala.page.PageRow;
 import io.vertx.core.Future;
@@ -36,31 +38,98 @@ import java.util.List;
 public class ResultList<T> {
 
 
-    private final Class<T> type;
-    private final String   sql;
-    private final JsonArray params;
+    private final Balala      balala;
+    private final Transaction tx;
+    private final Class<T>    type;
+    private final String      sql;
+    private final JsonArray   params;
 
     public ResultList(Class<T> type, String sql, JsonArray params) {
+        this(null, type, sql, params);
+    }
+
+    /**
+     * @param balala instance the statement runs on, {@link Balala#me()} when null
+     */
+    public ResultList(Balala balala, Class<T> type, String sql, JsonArray params) {
+        this(balala, null, type, sql, params);
+    }
+
+    /**
+     * @param balala instance the statement runs on, {@link Balala#me()} when null
+     * @param tx     transaction the statement runs in, null for a pooled connection
+     */
+    public ResultList(Balala balala, Transaction tx, Class<T> type, String sql, JsonArray params) {
+        this.balala = balala;
+        this.tx = tx;
         this.type = type;
         this.sql = sql;
         this.params = params;
     }
 
     public Future<JsonObject> one() {
-        return new BalalaQuery<>().queryOne(sql, params);
+        return query().queryOne(sql, params);
     }
 
     public Future<List<JsonObject>> all() {
-        return new BalalaQuery<>().queryList(sql, params);
+        return query().queryList(sql, params);
+    }
+
+    public Future<T> findOne() {
+        return query().queryOne(type, sql, params);
+    }
+
+    public Future<List<T>> findAll() {
+        return query().queryList(type, sql, params);
+    }
+
+    public Future<RowStream<JsonObject>> stream() {
+        return this.stream(balala().getFetchSize());
+    }
+
+    public Future<RowStream<JsonObject>> stream(int fetchSize) {
+        return query().queryStream(sql, params, fetchSize);
+    }
+
+    public Future<RowStream<T>> findStream() {
+        return this.findStream(balala().getFetchSize());
+    }
+
+    public Future<RowStream<T>> findStream(int fetchSize) {
+        return query().queryStream(type, sql, params, fetchSize);
     }
 
     public <S extends Model> Future<Page<JsonObject>> page(PageRow pageRow) {
         Class<S> modelType = (Class<S>) type;
-        return new BalalaQuery<>(modelType).page(sql, params, pageRow);
+        return query(modelType).page(sql, params, pageRow);
     }
 
     public <S extends Model> Future<Page<JsonObject>> page(int page, int limit) {
         return this.page(new PageRow(page, limit));
     }
 
+    public <S extends Model> Future<Page<T>> findPage(PageRow pageRow) {
+        Class<S> modelType = (Class<S>) type;
+        return query(modelType).page(type, sql, params, pageRow);
+    }
+
+    public <S extends Model> Future<Page<T>> findPage(int page, int limit) {
+        return this.findPage(new PageRow(page, limit));
+    }
+
+    private <S extends Model> BalalaQuery<S> query() {
+        if (null != tx) {
+            return new BalalaQuery<S>().using(tx);
+        }
+        return new BalalaQuery<S>().using(balala());
+    }
+
+    private <S extends Model> BalalaQuery<S> query(Class<S> modelType) {
+        return this.<S>query().parse(modelType);
+    }
+
+    private Balala balala() {
+        return null != balala ? balala : Balala.me();
+    }
+
 }
@@ -0,0 +1,121 @@
+package io.github.balala.core;
+
+import io.vertx.core.Handler;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.streams.ReadStream;
+import io.vertx.ext.sql.SQLRowStream;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Row Stream
+ * <p>
+ * A backpressure-aware {@link ReadStream} over a {@link SQLRowStream} that owns its
+ * connection: the connection is given back to the {@link SQLExecutor}, freeing its permit,
+ * when the stream ends, fails or is cancelled with {@link #close()}. A stream inside a
+ * transaction has no connection of its own and leaves the transaction's open.
+ *
+ * @author yizmao
+ */
+@Slf4j
+public class RowStream<R> implements ReadStream<R> {
+
+    private final Runnable               release;
+    private final SQLRowStream           stream;
+    private final Function<JsonArray, R> mapper;
+    private final AtomicBoolean          closed = new AtomicBoolean();
+
+    private Handler<Throwable> exceptionHandler;
+    private Handler<Void>      endHandler;
+
+    /**
+     * @param release gives the connection back, null for the connection of a transaction
+     */
+    RowStream(Runnable release, SQLRowStream stream, Function<JsonArray, R> mapper) {
+        this.release = release;
+        this.stream = stream;
+        this.mapper = mapper;
+        stream.exceptionHandler(this::fail);
+        stream.endHandler(v -> {
+            this.close();
+            Handler<Void> handler = this.endHandler;
+            if (null != handler) {
+                handler.handle(null);
+            }
+        });
+    }
+
+    @Override
+    public RowStream<R> exceptionHandler(Handler<Throwable> handler) {
+        this.exceptionHandler = handler;
+        return this;
+    }
+
+    @Override
+    public RowStream<R> handler(Handler<R> handler) {
+        if (null == handler) {
+            stream.handler(null);
+            return this;
+        }
+        stream.handler(row -> {
+            R value;
+            try {
+                value = mapper.apply(row);
+            } catch (Exception e) {
+                this.fail(e);
+                return;
+            }
+            handler.handle(value);
+        });
+        return this;
+    }
+
+    @Override
+    public RowStream<R> pause() {
+        stream.pause();
+        return this;
+    }
+
+    @Override
+    public RowStream<R> resume() {
+        stream.resume();
+        return this;
+    }
+
+    @Override
+    public RowStream<R> endHandler(Handler<Void> handler) {
+        this.endHandler = handler;
+        return this;
+    }
+
+    /**
+     * Stop reading and release the connection, no more rows are delivered.
+     */
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        stream.handler(null);
+        stream.close(res -> {
+            if (res.failed()) {
+                log.warn("Close row stream fail", res.cause());
+            }
+            if (null != release) {
+                release.run();
+            }
+        });
+    }
+
+    private void fail(Throwable cause) {
+        this.close();
+        Handler<Throwable> handler = this.exceptionHandler;
+        if (null != handler) {
+            handler.handle(cause);
+        } else {
+            log.error("Unhandled row stream failure", cause);
+        }
+    }
+
+}
@@ -0,0 +1,197 @@
+package io.github.balala.core;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * SQL Cache
+ * <p>
+ * Final SQL strings keyed by query shape: the statement kind, dialect, model and every
+ * clause that shapes the text, but not the bound values. Repeated shapes skip the
+ * dialect's string building and send byte-identical SQL, which keeps server-side
+ * statement caches warm. Parts of the shape are compared by content, so the builders pass
+ * their clause buffers as they are and a hit copies nothing. Once full, the cache keeps its
+ * shapes and new ones are built on every call without being cached: size it above the
+ * number of shapes of the application, which {@link Stats#getRejected()} tells when short.
+ *
+ * @author yizmao
+ */
+public final class SQLCache {
+
+    private static final Map<Key, String> CACHE = new ConcurrentHashMap<>(256);
+    private static final AtomicInteger    SIZE  = new AtomicInteger();
+
+    private static final LongAdder HITS     = new LongAdder();
+    private static final LongAdder MISSES   = new LongAdder();
+    private static final LongAdder REJECTED = new LongAdder();
+
+    private static volatile int maxSize = 4096;
+
+    private SQLCache() {
+    }
+
+    public static void setMaxSize(int size) {
+        maxSize = size;
+    }
+
+    /**
+     * Get the SQL of a shape, building it on a miss.
+     *
+     * @param builder builds the SQL
+     * @param shape   everything the SQL text depends on, char sequences and collections by content
+     * @return sql
+     */
+    public static String get(Supplier<String> builder, Object... shape) {
+        if (maxSize <= 0) {
+            return builder.get();
+        }
+        Key    key = new Key(shape);
+        String sql = CACHE.get(key);
+        if (null != sql) {
+            HITS.increment();
+            return sql;
+        }
+        MISSES.increment();
+        sql = builder.get();
+        if (SIZE.incrementAndGet() > maxSize) {
+            SIZE.decrementAndGet();
+            REJECTED.increment();
+            return sql;
+        }
+        if (null != CACHE.putIfAbsent(key.snapshot(), sql)) {
+            SIZE.decrementAndGet();
+        }
+        return sql;
+    }
+
+    public static void clear() {
+        for (Key key : CACHE.keySet()) {
+            if (null != CACHE.remove(key)) {
+                SIZE.decrementAndGet();
+            }
+        }
+    }
+
+    public static Stats stats() {
+        return new Stats(HITS.sum(), MISSES.sum(), REJECTED.sum(), SIZE.get());
+    }
+
+    @Getter
+    public static class Stats {
+
+        private final long hits;
+        private final long misses;
+        /**
+         * Misses not cached because the cache was full
+         */
+        private final long rejected;
+        private final int  size;
+
+        Stats(long hits, long misses, long rejected, int size) {
+            this.hits = hits;
+            this.misses = misses;
+            this.rejected = rejected;
+            this.size = size;
+        }
+
+        public double hitRatio() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return "SQLCache{hits=" + hits + ", misses=" + misses + ", rejected=" + rejected + ", size=" + size + "}";
+        }
+    }
+
+    private static final class Key {
+
+        private final Object[] parts;
+        private final int      hash;
+
+        Key(Object[] parts) {
+            this.parts = parts;
+            int hash = 1;
+            for (Object part : parts) {
+                hash = 31 * hash + hash(part);
+            }
+            this.hash = hash;
+        }
+
+        /**
+         * The key to store, holding copies of the buffers and collections the builders keep mutating.
+         */
+        Key snapshot() {
+            Object[] copy = parts.clone();
+            for (int i = 0; i < copy.length; i++) {
+                if (copy[i] instanceof CharSequence && !(copy[i] instanceof String)) {
+                    copy[i] = copy[i].toString();
+                } else if (copy[i] instanceof Collection) {
+                    copy[i] = new ArrayList<>((Collection<?>) copy[i]);
+                }
+            }
+            return new Key(copy);
+        }
+
+        /**
+         * Same as {@link String#hashCode()} for every char sequence.
+         */
+        private static int hash(Object part) {
+            if (part instanceof String || !(part instanceof CharSequence)) {
+                return Objects.hashCode(part);
+            }
+            CharSequence chars = (CharSequence) part;
+            int          hash  = 0;
+            for (int i = 0; i < chars.length(); i++) {
+                hash = 31 * hash + chars.charAt(i);
+            }
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key) || hash != ((Key) o).hash || parts.length != ((Key) o).parts.length) {
+                return false;
+            }
+            Object[] others = ((Key) o).parts;
+            for (int i = 0; i < parts.length; i++) {
+                if (parts[i] instanceof CharSequence && others[i] instanceof CharSequence) {
+                    if (!contentEquals((CharSequence) parts[i], (CharSequence) others[i])) {
+                        return false;
+                    }
+                } else if (!Objects.equals(parts[i], others[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean contentEquals(CharSequence a, CharSequence b) {
+            if (a instanceof String) {
+                return ((String) a).contentEquals(b);
+            }
+            if (b instanceof String) {
+                return ((String) b).contentEquals(a);
+            }
+            return a.toString().equals(b.toString());
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+}
@@ -0,0 +1,476 @@
+package io.github.balala.core;
+
+import io.github.balala.core.metrics.Execution;
+import io.github.balala.core.metrics.ExecutionListener;
+import io.github.balala.enums.DMLType;
+import io.github.balala.exception.AnimaException;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.ext.sql.ResultSet;
+import io.vertx.ext.sql.SQLClient;
+import io.vertx.ext.sql.SQLConnection;
+import io.vertx.ext.sql.SQLOperations;
+import io.vertx.ext.sql.SQLOptions;
+import io.vertx.ext.sql.UpdateResult;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * SQL Executor
+ * <p>
+ * Runs the statements of one Balala instance: borrows a connection, runs the statement
+ * and gives the connection back, timing both steps apart.
+ * <ul>
+ * <li>At most {@link #getMaxInFlight()} statements hold a connection at once, up to
+ * {@link #getMaxQueued()} more wait for one, and the others fail at once, so a database
+ * brownout sheds load instead of piling it up. A transaction holds one permit until it
+ * completes, the statements run on its connection take none. A row stream holds one until it
+ * ends, fails or is closed.</li>
+ * <li>A statement past its deadline fails with a timeout, on the connection of a transaction
+ * too. If it still waits, it leaves the queue; if it runs, the driver cancels it through the
+ * JDBC query timeout, and its connection goes back to the pool as soon as the driver returns.</li>
+ * <li>Every statement completed is reported to the {@link ExecutionListener}s, statements on
+ * the connection of a transaction included.</li>
+ * </ul>
+ *
+ * @author yizmao
+ */
+@Slf4j
+public class SQLExecutor {
+
+    /**
+     * Name of the Balala instance
+     */
+    @Getter
+    private final String name;
+
+    /**
+     * Milliseconds a statement may wait and run, 0 for no deadline; a query can set its own
+     */
+    @Getter
+    @Setter
+    private long timeout;
+
+    /**
+     * Max statements holding a connection at once, 0 for no limit
+     */
+    @Getter
+    @Setter
+    private int maxInFlight;
+
+    /**
+     * Max statements waiting when {@link #getMaxInFlight()} are in flight
+     */
+    @Getter
+    @Setter
+    private int maxQueued = Integer.MAX_VALUE;
+
+    /**
+     * Vert.x instance arming the deadlines of statements issued off a context, by default
+     * the owner of the first context a statement was issued on
+     */
+    @Getter
+    @Setter
+    private volatile Vertx vertx;
+
+    private final AtomicInteger       running = new AtomicInteger();
+    private final AtomicInteger       queued  = new AtomicInteger();
+    private final Queue<Statement<?>> waiting = new ConcurrentLinkedQueue<>();
+
+    private final LongAdder  statements  = new LongAdder();
+    private final LongAdder  rejected    = new LongAdder();
+    private final LongAdder  timedOut    = new LongAdder();
+    private final LongAdder  acquireTime = new LongAdder();
+    private final LongAdder  executeTime = new LongAdder();
+    private final AtomicLong maxAcquire  = new AtomicLong();
+    private final AtomicLong maxExecute  = new AtomicLong();
+
+    private final List<ExecutionListener> listeners = new CopyOnWriteArrayList<>();
+
+    public SQLExecutor(String name) {
+        this.name = name;
+    }
+
+    public void addListener(ExecutionListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(ExecutionListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Run a query.
+     *
+     * @param target     client lending the connection, or the connection of a transaction
+     * @param modelClass model queried, may be null
+     * @param sql        sql statement
+     * @param params     params
+     * @param timeout    deadline in milliseconds, 0 for the default
+     * @return result set
+     */
+    public Future<ResultSet> query(SQLOperations target, Class<?> modelClass, String sql, JsonArray params, long timeout) {
+        return this.execute(target, timeout, new Statement<>(modelClass, DMLType.SELECT, sql, params, ResultSet::getNumRows,
+                (connection, handler) -> connection.queryWithParams(sql, params, handler)));
+    }
+
+    /**
+     * Run an insert, update or delete.
+     *
+     * @param target     client lending the connection, or the connection of a transaction
+     * @param modelClass model written, may be null
+     * @param dmlType    kind of statement
+     * @param sql        sql statement
+     * @param params     params
+     * @param timeout    deadline in milliseconds, 0 for the default
+     * @return update result
+     */
+    public Future<UpdateResult> update(SQLOperations target, Class<?> modelClass, DMLType dmlType, String sql, JsonArray params, long timeout) {
+        return this.execute(target, timeout, new Statement<>(modelClass, dmlType, sql, params, UpdateResult::getUpdated,
+                (connection, handler) -> connection.updateWithParams(sql, params, handler)));
+    }
+
+    /**
+     * Lend a connection to a transaction or a row stream, under the limits of a statement: it holds a permit
+     * until given back, waits in the queue when none is free and fails past the deadline.
+     * It is neither counted nor reported, the statements run on it are.
+     *
+     * @param client  client lending the connection
+     * @param timeout deadline of the wait in milliseconds, 0 for the default
+     * @return connection, give it back with {@link #giveBack(SQLConnection)}
+     */
+    public Future<SQLConnection> connection(SQLClient client, long timeout) {
+        Statement<SQLConnection> statement = new Statement<>(null, null, null, null, null,
+                (connection, handler) -> handler.handle(Future.succeededFuture(connection)));
+        statement.lend = true;
+        return this.execute(client, timeout, statement);
+    }
+
+    /**
+     * Close a connection lent by {@link #connection(SQLClient, long)} and free its permit.
+     *
+     * @param connection connection
+     */
+    public void giveBack(SQLConnection connection) {
+        connection.close();
+        this.release();
+    }
+
+    public Stats stats() {
+        return new Stats(statements.sum(), rejected.sum(), timedOut.sum(), running.get(), queued.get(),
+                acquireTime.sum(), maxAcquire.get(), executeTime.sum(), maxExecute.get());
+    }
+
+    private <R> Future<R> execute(SQLOperations target, long timeout, Statement<R> statement) {
+        statement.timeout = timeout > 0 ? timeout : this.timeout;
+        if (!statement.lend) {
+            statements.increment();
+        }
+        if (null == vertx && null != statement.context) {
+            vertx = statement.context.owner();
+        }
+        if (target instanceof SQLConnection) {
+            SQLConnection connection = (SQLConnection) target;
+            connection.setOptions(new SQLOptions().setQueryTimeout(queryTimeout(statement.timeout)));
+            this.run(statement, connection, System.nanoTime(), false);
+            return statement.future;
+        }
+        statement.client = (SQLClient) target;
+        int limit = this.maxInFlight;
+        if (limit <= 0) {
+            running.incrementAndGet();
+            this.start(statement);
+            return statement.future;
+        }
+        if (this.tryAcquire(limit)) {
+            this.start(statement);
+            return statement.future;
+        }
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            rejected.increment();
+            AnimaException e = new AnimaException("Rejected, " + limit + " statements in flight and " + maxQueued + " waiting");
+            statement.future.fail(e);
+            this.report(statement, 0, 0, -1, e);
+            return statement.future;
+        }
+        statement.deadline(() -> {
+            if (waiting.remove(statement)) {
+                queued.decrementAndGet();
+                this.report(statement, System.nanoTime() - statement.submitted, 0, -1, statement.future.cause());
+            }
+        });
+        waiting.add(statement);
+        this.drain();
+        return statement.future;
+    }
+
+    private boolean tryAcquire(int limit) {
+        while (true) {
+            int current = running.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (running.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void release() {
+        running.decrementAndGet();
+        this.drain();
+    }
+
+    /**
+     * Start waiting statements while permits are free.
+     */
+    private void drain() {
+        while (!waiting.isEmpty() && this.tryAcquire(Math.max(1, maxInFlight))) {
+            Statement<?> statement = waiting.poll();
+            if (null == statement) {
+                running.decrementAndGet();
+                return;
+            }
+            queued.decrementAndGet();
+            if (null == statement.context || statement.context == Vertx.currentContext()) {
+                this.start(statement);
+            } else {
+                statement.context.runOnContext(v -> this.start(statement));
+            }
+        }
+    }
+
+    private <R> void start(Statement<R> statement) {
+        statement.deadline(null);
+        statement.client.getConnection(res -> {
+            long acquired = System.nanoTime();
+            long wait     = acquired - statement.submitted;
+            record(acquireTime, maxAcquire, wait);
+            if (res.failed()) {
+                this.release();
+                statement.complete(Future.failedFuture(res.cause()));
+                this.report(statement, wait, 0, -1, res.cause());
+                return;
+            }
+            SQLConnection connection = res.result();
+            if (statement.future.isComplete()) {
+                connection.close();
+                this.release();
+                this.report(statement, wait, 0, -1, statement.future.cause());
+                return;
+            }
+            if (statement.timeout > 0 && !statement.lend) {
+                connection.setOptions(new SQLOptions().setQueryTimeout(queryTimeout(statement.timeout)));
+            }
+            this.run(statement, connection, acquired, true);
+        });
+    }
+
+    /**
+     * @param owned whether the statement borrowed the connection, false for the connection of a transaction
+     */
+    private <R> void run(Statement<R> statement, SQLConnection connection, long acquired, boolean owned) {
+        statement.deadline(null);
+        statement.body.accept(connection, result -> {
+            if (statement.lend) {
+                statement.complete(result);
+                if (statement.future.failed()) {
+                    this.giveBack(connection);
+                }
+                return;
+            }
+            long elapsed = System.nanoTime() - acquired;
+            record(executeTime, maxExecute, elapsed);
+            if (owned) {
+                connection.close();
+                this.release();
+            }
+            statement.complete(result);
+            if (result.succeeded()) {
+                Throwable error = statement.future.failed() ? statement.future.cause() : null;
+                this.report(statement, acquired - statement.submitted, elapsed, statement.rows.applyAsInt(result.result()), error);
+            } else {
+                this.report(statement, acquired - statement.submitted, elapsed, -1, result.cause());
+            }
+        });
+    }
+
+    /**
+     * Tell the listeners accepting the statement, nothing is allocated when there is none.
+     */
+    private void report(Statement<?> statement, long acquireNanos, long executeNanos, int rows, Throwable error) {
+        if (listeners.isEmpty() || statement.lend) {
+            return;
+        }
+        Execution execution = null;
+        for (ExecutionListener listener : listeners) {
+            try {
+                if (!listener.accepts(acquireNanos + executeNanos)) {
+                    continue;
+                }
+                if (null == execution) {
+                    execution = new Execution(name, statement.sql, statement.params, statement.modelClass,
+                            statement.dmlType, acquireNanos, executeNanos, error == null ? rows : -1, error);
+                }
+                listener.onExecution(execution);
+            } catch (Exception e) {
+                log.warn("Execution listener fail", e);
+            }
+        }
+    }
+
+    /**
+     * JDBC query timeout of a deadline, in whole seconds rounded up, 0 for none.
+     */
+    private static int queryTimeout(long timeout) {
+        return timeout > 0 ? (int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(timeout + 999)) : 0;
+    }
+
+    private static void record(LongAdder total, AtomicLong max, long nanos) {
+        total.add(nanos);
+        long current = max.get();
+        while (nanos > current && !max.compareAndSet(current, nanos)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * A statement waiting for, or holding, a connection.
+     */
+    private final class Statement<R> {
+
+        private final Class<?>                                           modelClass;
+        private final DMLType                                            dmlType;
+        private final String                                             sql;
+        private final JsonArray                                          params;
+        private final ToIntFunction<R>                                   rows;
+        private final BiConsumer<SQLConnection, Handler<AsyncResult<R>>> body;
+        private final Context                                            context   = Vertx.currentContext();
+        private final long                                               submitted = System.nanoTime();
+        private final Future<R>                                          future    = Future.future();
+        private       SQLClient                                          client;
+        private       long                                               timeout;
+        private       Vertx                                              timers;
+        private       long                                               timerId   = -1;
+        private       boolean                                            lend;
+
+        private Statement(Class<?> modelClass, DMLType dmlType, String sql, JsonArray params, ToIntFunction<R> rows,
+                          BiConsumer<SQLConnection, Handler<AsyncResult<R>>> body) {
+            this.modelClass = modelClass;
+            this.dmlType = dmlType;
+            this.sql = sql;
+            this.params = params;
+            this.rows = rows;
+            this.body = body;
+        }
+
+        /**
+         * Arm the deadline once, with the Vert.x instance of the caller's context or else the
+         * one of the executor. With neither, only the JDBC query timeout bounds the statement.
+         *
+         * @param onTimeout runs when the deadline passes, may be null
+         */
+        private void deadline(Runnable onTimeout) {
+            if (timeout <= 0 || timerId >= 0) {
+                return;
+            }
+            timers = null != context ? context.owner() : vertx;
+            if (null == timers) {
+                return;
+            }
+            timerId = timers.setTimer(timeout, id -> {
+                if (future.tryFail(new AnimaException("Statement timed out after " + timeout + " ms"))) {
+                    timedOut.increment();
+                    if (null != onTimeout) {
+                        onTimeout.run();
+                    }
+                }
+            });
+        }
+
+        private void complete(AsyncResult<R> result) {
+            if (timerId >= 0) {
+                timers.cancelTimer(timerId);
+            }
+            if (result.succeeded()) {
+                future.tryComplete(result.result());
+            } else {
+                future.tryFail(result.cause());
+            }
+        }
+    }
+
+    @Getter
+    public static class Stats {
+
+        /**
+         * Statements submitted
+         */
+        private final long statements;
+
+        /**
+         * Statements failed at once because the wait queue was full
+         */
+        private final long rejected;
+
+        /**
+         * Statements failed by their deadline
+         */
+        private final long timedOut;
+
+        private final int inFlight;
+
+        private final int queued;
+
+        /**
+         * Nanoseconds spent waiting for a connection, in total and at most
+         */
+        private final long acquireNanos;
+        private final long maxAcquireNanos;
+
+        /**
+         * Nanoseconds spent running statements on a connection, in total and at most
+         */
+        private final long executeNanos;
+        private final long maxExecuteNanos;
+
+        Stats(long statements, long rejected, long timedOut, int inFlight, int queued,
+              long acquireNanos, long maxAcquireNanos, long executeNanos, long maxExecuteNanos) {
+            this.statements = statements;
+            this.rejected = rejected;
+            this.timedOut = timedOut;
+            this.inFlight = inFlight;
+            this.queued = queued;
+            this.acquireNanos = acquireNanos;
+            this.maxAcquireNanos = maxAcquireNanos;
+            this.executeNanos = executeNanos;
+            this.maxExecuteNanos = maxExecuteNanos;
+        }
+
+        @Override
+        public String toString() {
+            return "SQLExecutor{statements=" + statements + ", rejected=" + rejected + ", timedOut=" + timedOut
+                    + ", inFlight=" + inFlight + ", queued=" + queued
+                    + ", acquireMillis=" + TimeUnit.NANOSECONDS.toMillis(acquireNanos)
+                    + ", executeMillis=" + TimeUnit.NANOSECONDS.toMillis(executeNanos) + "}";
+        }
+    }
+
+}
@@ -0,0 +1,197 @@
+package io.github.balala.core;
+
+import io.github.balala.enums.CoalesceMode;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.ext.sql.ResultSet;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Single Flight
+ * <p>
+ * Coalesces identical concurrent reads, keyed by final SQL, params and routing target: while a
+ * query is in flight, the same query for the same target joins it instead of going to the
+ * database. A read pinned to the primary never joins one running on a replica, which could
+ * miss the writes it must see. The first caller gets
+ * the result set itself and every joined caller a copy, completed on its own context.
+ * Only reads in flight are shared, nothing is cached after completion. A read that throws
+ * before it is sent fails the callers that joined it and still throws to its own caller.
+ *
+ * @author yizmao
+ */
+public final class SingleFlight {
+
+    private static final String CONTEXT_KEY = "balala.singleflight";
+
+    private static final Map<String, Flight> GLOBAL = new ConcurrentHashMap<>(64);
+
+    private static final LongAdder CALLS     = new LongAdder();
+    private static final LongAdder COALESCED = new LongAdder();
+
+    private SingleFlight() {
+    }
+
+    /**
+     * Run a read, or join the identical one in flight.
+     *
+     * @param mode    scope of sharing
+     * @param scope   name of the Balala instance
+     * @param primary whether the read goes to the primary
+     * @param sql     final sql
+     * @param params  bound values
+     * @param query   runs the read
+     * @return result set
+     */
+    static Future<ResultSet> query(CoalesceMode mode, String scope, boolean primary, String sql, JsonArray params,
+                                   Supplier<Future<ResultSet>> query) {
+        Map<String, Flight> flights = flights(mode);
+        if (null == flights) {
+            return query.get();
+        }
+        CALLS.increment();
+        String key    = scope + (primary ? "\u0000primary\u0000" : "\u0000replica\u0000") + sql + '\u0000' + params.encode();
+        Flight flight = new Flight();
+        Flight leader = flights.putIfAbsent(key, flight);
+        if (null != leader) {
+            COALESCED.increment();
+            return leader.join();
+        }
+        Future<ResultSet> running;
+        try {
+            running = query.get();
+        } catch (RuntimeException e) {
+            flights.remove(key, flight);
+            flight.complete(Future.failedFuture(e));
+            throw e;
+        }
+        Future<ResultSet> future = Future.future();
+        running.setHandler(res -> {
+            flights.remove(key, flight);
+            flight.complete(res);
+            future.handle(res);
+        });
+        return future;
+    }
+
+    public static Stats stats() {
+        return new Stats(CALLS.sum(), COALESCED.sum(), GLOBAL.size());
+    }
+
+    private static Map<String, Flight> flights(CoalesceMode mode) {
+        if (null == mode || CoalesceMode.NONE == mode) {
+            return null;
+        }
+        Context context = Vertx.currentContext();
+        if (CoalesceMode.GLOBAL == mode || null == context) {
+            return GLOBAL;
+        }
+        Map<String, Flight> flights = context.get(CONTEXT_KEY);
+        if (null == flights) {
+            flights = new ConcurrentHashMap<>(16);
+            context.put(CONTEXT_KEY, flights);
+        }
+        return flights;
+    }
+
+    @Getter
+    public static class Stats {
+
+        /**
+         * Reads that went through a coalescing scope
+         */
+        private final long calls;
+
+        /**
+         * Reads that joined a query in flight instead of running their own
+         */
+        private final long coalesced;
+
+        /**
+         * Queries in flight in the global scope
+         */
+        private final int inFlight;
+
+        Stats(long calls, long coalesced, int inFlight) {
+            this.calls = calls;
+            this.coalesced = coalesced;
+            this.inFlight = inFlight;
+        }
+
+        public double coalescedRatio() {
+            return calls == 0 ? 0 : (double) coalesced / calls;
+        }
+
+        @Override
+        public String toString() {
+            return "SingleFlight{calls=" + calls + ", coalesced=" + coalesced + ", inFlight=" + inFlight + "}";
+        }
+    }
+
+    private static final class Flight {
+
+        private final List<Waiter> waiters = new ArrayList<>(4);
+
+        private AsyncResult<ResultSet> result;
+
+        synchronized Future<ResultSet> join() {
+            Future<ResultSet> future = Future.future();
+            Waiter            waiter = new Waiter(Vertx.currentContext(), future);
+            if (null != result) {
+                waiter.handle(result);
+            } else {
+                waiters.add(waiter);
+            }
+            return future;
+        }
+
+        void complete(AsyncResult<ResultSet> result) {
+            List<Waiter> waiters;
+            synchronized (this) {
+                this.result = result;
+                waiters = new ArrayList<>(this.waiters);
+                this.waiters.clear();
+            }
+            for (Waiter waiter : waiters) {
+                waiter.handle(result);
+            }
+        }
+    }
+
+    private static final class Waiter {
+
+        private final Context           context;
+        private final Future<ResultSet> future;
+
+        Waiter(Context context, Future<ResultSet> future) {
+            this.context = context;
+            this.future = future;
+        }
+
+        void handle(AsyncResult<ResultSet> result) {
+            if (null == context || context == Vertx.currentContext()) {
+                this.complete(result);
+            } else {
+                context.runOnContext(v -> this.complete(result));
+            }
+        }
+
+        private void complete(AsyncResult<ResultSet> result) {
+            if (result.succeeded()) {
+                future.complete(new ResultSet(result.result().toJson().copy()));
+            } else {
+                future.fail(result.cause());
+            }
+        }
+    }
+
+}
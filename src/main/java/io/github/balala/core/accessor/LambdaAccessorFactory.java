@@ -0,0 +1,62 @@
+package io.github.balala.core.accessor;
+
+import io.github.balala.exception.AnimaException;
+
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+
+/**
+ * Accessors bound to the field itself, never to its getter or setter, so that a getter
+ * masking or deriving the value does not change what is bound to statements or written
+ * by the row mapper. The field handles come from {@link MethodHandles.Lookup#unreflectGetter(Field)}
+ * and {@link MethodHandles.Lookup#unreflectSetter(Field)}, adapted once to the erased
+ * (Object)Object and (Object,Object)void shapes so that each access is a single invokeExact.
+ * {@link LambdaMetafactory} cannot spin a class around a field handle, so no lambda is generated.
+ * Fields the lookup cannot reach fall back to {@link MethodHandleAccessorFactory}.
+ *
+ * @author yizmao
+ */
+public class LambdaAccessorFactory implements PropertyAccessorFactory {
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final PropertyAccessorFactory fallback = new MethodHandleAccessorFactory();
+
+    @Override
+    public PropertyAccessor create(Field field) {
+        MethodHandle getter;
+        MethodHandle setter;
+        try {
+            field.setAccessible(true);
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            getter = lookup.unreflectGetter(field).asType(GETTER_TYPE);
+            setter = lookup.unreflectSetter(field).asType(SETTER_TYPE);
+        } catch (IllegalAccessException | SecurityException e) {
+            return fallback.create(field);
+        }
+        return new PropertyAccessor() {
+            @Override
+            public Object get(Object target) {
+                try {
+                    return (Object) getter.invokeExact(target);
+                } catch (Throwable e) {
+                    throw new AnimaException("illegal argument or Access:", e);
+                }
+            }
+
+            @Override
+            public void set(Object target, Object value) {
+                try {
+                    setter.invokeExact(target, value);
+                } catch (Throwable e) {
+                    throw new AnimaException("illegal argument or Access:", e);
+                }
+            }
+        };
+    }
+
+}
@@ -0,0 +1,56 @@
+package io.github.balala.core.accessor;
+
+import io.github.balala.exception.AnimaException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+
+/**
+ * Field access through cached {@link MethodHandle}s, adapted to (Object)Object and
+ * (Object,Object)void so that the hot path is a single invokeExact.
+ *
+ * @author yizmao
+ */
+public class MethodHandleAccessorFactory implements PropertyAccessorFactory {
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final PropertyAccessorFactory fallback = new ReflectionAccessorFactory();
+
+    @Override
+    public PropertyAccessor create(Field field) {
+        MethodHandle getter;
+        MethodHandle setter;
+        try {
+            field.setAccessible(true);
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            getter = lookup.unreflectGetter(field).asType(GETTER_TYPE);
+            setter = lookup.unreflectSetter(field).asType(SETTER_TYPE);
+        } catch (IllegalAccessException | RuntimeException e) {
+            return fallback.create(field);
+        }
+        return new PropertyAccessor() {
+            @Override
+            public Object get(Object target) {
+                try {
+                    return (Object) getter.invokeExact(target);
+                } catch (Throwable e) {
+                    throw new AnimaException("illegal argument or Access:", e);
+                }
+            }
+
+            @Override
+            public void set(Object target, Object value) {
+                try {
+                    setter.invokeExact(target, value);
+                } catch (Throwable e) {
+                    throw new AnimaException("illegal argument or Access:", e);
+                }
+            }
+        };
+    }
+
+}
@@ -0,0 +1,14 @@
+package io.github.balala.core.accessor;
+
+/**
+ * Read and write one property of a model.
+ *
+ * @author yizmao
+ */
+public interface PropertyAccessor {
+
+    Object get(Object target);
+
+    void set(Object target, Object value);
+
+}
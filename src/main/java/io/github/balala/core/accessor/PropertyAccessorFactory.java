@@ -0,0 +1,15 @@
+package io.github.balala.core.accessor;
+
+import java.lang.reflect.Field;
+
+/**
+ * Create the {@link PropertyAccessor} of a model field, called once per field.
+ *
+ * @author yizmao
+ */
+@FunctionalInterface
+public interface PropertyAccessorFactory {
+
+    PropertyAccessor create(Field field);
+
+}
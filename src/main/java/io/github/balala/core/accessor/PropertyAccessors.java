@@ -0,0 +1,31 @@
+package io.github.balala.core.accessor;
+
+import java.lang.reflect.Field;
+
+/**
+ * Holds the {@link PropertyAccessorFactory} used when model metadata is built.
+ * <p>
+ * Change the factory before the first query, accessors already built are kept.
+ *
+ * @author yizmao
+ */
+public final class PropertyAccessors {
+
+    private static volatile PropertyAccessorFactory factory = new LambdaAccessorFactory();
+
+    private PropertyAccessors() {
+    }
+
+    public static PropertyAccessorFactory getFactory() {
+        return factory;
+    }
+
+    public static void setFactory(PropertyAccessorFactory accessorFactory) {
+        factory = accessorFactory;
+    }
+
+    public static PropertyAccessor create(Field field) {
+        return factory.create(field);
+    }
+
+}
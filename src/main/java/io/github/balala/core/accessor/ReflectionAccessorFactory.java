@@ -0,0 +1,38 @@
+package io.github.balala.core.accessor;
+
+import io.github.balala.exception.AnimaException;
+
+import java.lang.reflect.Field;
+
+/**
+ * Plain {@link Field} access, the fallback of every other factory.
+ *
+ * @author yizmao
+ */
+public class ReflectionAccessorFactory implements PropertyAccessorFactory {
+
+    @Override
+    public PropertyAccessor create(Field field) {
+        field.setAccessible(true);
+        return new PropertyAccessor() {
+            @Override
+            public Object get(Object target) {
+                try {
+                    return field.get(target);
+                } catch (IllegalArgumentException | IllegalAccessException e) {
+                    throw new AnimaException("illegal argument or Access:", e);
+                }
+            }
+
+            @Override
+            public void set(Object target, Object value) {
+                try {
+                    field.set(target, value);
+                } catch (IllegalArgumentException | IllegalAccessException e) {
+                    throw new AnimaException("illegal argument or Access:", e);
+                }
+            }
+        };
+    }
+
+}
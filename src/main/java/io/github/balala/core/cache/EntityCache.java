@@ -0,0 +1,189 @@
+package io.github.balala.core.cache;
+
+import io.github.balala.annotation.Cached;
+import io.github.balala.core.AnimaCache;
+import io.vertx.core.json.JsonObject;
+import lombok.Getter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Entity Cache
+ * <p>
+ * Rows of {@link Cached} models keyed by (model class, pk), serving plain byId and byIds
+ * lookups. Writes through BalalaUpdate invalidate the touched pk, or the whole model when
+ * the rows are not known. Callers always get a copy of the cached row.
+ * <p>
+ * Writes that bypass Balala, or happen on another node, are only seen after the TTL.
+ *
+ * @author yizmao
+ */
+public final class EntityCache {
+
+    private static final Region DISABLED = new Region(null);
+
+    private static final Map<Class<?>, Region> REGIONS = new ConcurrentHashMap<>(8);
+
+    private static volatile EntityCacheStore.Factory storeFactory = LruEntityCacheStore::new;
+
+    private EntityCache() {
+    }
+
+    /**
+     * Plug the store of models enabled from now on.
+     *
+     * @param factory store factory
+     */
+    public static void setStoreFactory(EntityCacheStore.Factory factory) {
+        storeFactory = factory;
+    }
+
+    /**
+     * Cache a model that is not annotated with {@link Cached}, or override its annotation.
+     *
+     * @param modelClass model class
+     * @param maxSize    max rows
+     * @param ttl        time to live, 0 never expires
+     * @param unit       ttl unit
+     */
+    public static void enable(Class<?> modelClass, int maxSize, long ttl, TimeUnit unit) {
+        REGIONS.put(modelClass, new Region(storeFactory.create(maxSize, unit.toMillis(ttl))));
+    }
+
+    public static void disable(Class<?> modelClass) {
+        REGIONS.put(modelClass, DISABLED);
+    }
+
+    public static boolean isEnabled(Class<?> modelClass) {
+        return DISABLED != region(modelClass);
+    }
+
+    /**
+     * @return a copy of the cached row, null on a miss
+     */
+    public static JsonObject get(Class<?> modelClass, Object id) {
+        Region region = region(modelClass);
+        if (DISABLED == region) {
+            return null;
+        }
+        JsonObject row = region.store.get(String.valueOf(id));
+        if (null == row) {
+            region.misses.increment();
+            return null;
+        }
+        region.hits.increment();
+        return row.copy();
+    }
+
+    public static void put(Class<?> modelClass, Object id, JsonObject row) {
+        Region region = region(modelClass);
+        if (DISABLED != region && null != id && null != row) {
+            region.store.put(String.valueOf(id), row.copy());
+        }
+    }
+
+    /**
+     * Cache a row under the value of its primary key column.
+     */
+    public static void put(Class<?> modelClass, JsonObject row) {
+        put(modelClass, idOf(modelClass, row), row);
+    }
+
+    /**
+     * Primary key value of a row, whatever the case of its column name.
+     *
+     * @param modelClass model class
+     * @param row        row
+     * @return primary key value, null when absent
+     */
+    public static Object idOf(Class<?> modelClass, JsonObject row) {
+        String pkColumn = AnimaCache.getPKColumn(modelClass);
+        Object id       = row.getValue(pkColumn);
+        if (null == id) {
+            for (String column : row.fieldNames()) {
+                if (column.equalsIgnoreCase(pkColumn)) {
+                    id = row.getValue(column);
+                    break;
+                }
+            }
+        }
+        return id;
+    }
+
+    public static void invalidate(Class<?> modelClass, Object id) {
+        Region region = region(modelClass);
+        if (DISABLED != region && null != id) {
+            region.store.invalidate(String.valueOf(id));
+        }
+    }
+
+    public static void invalidateAll(Class<?> modelClass) {
+        Region region = region(modelClass);
+        if (DISABLED != region) {
+            region.store.invalidateAll();
+        }
+    }
+
+    public static Stats stats(Class<?> modelClass) {
+        Region region = region(modelClass);
+        if (DISABLED == region) {
+            return new Stats(0, 0, 0, 0);
+        }
+        return new Stats(region.hits.sum(), region.misses.sum(), region.store.evictions(), region.store.size());
+    }
+
+    private static Region region(Class<?> modelClass) {
+        Region region = REGIONS.get(modelClass);
+        if (null != region) {
+            return region;
+        }
+        return REGIONS.computeIfAbsent(modelClass, type -> {
+            Cached cached = type.getAnnotation(Cached.class);
+            if (null == cached) {
+                return DISABLED;
+            }
+            return new Region(storeFactory.create(cached.maxSize(), cached.unit().toMillis(cached.ttl())));
+        });
+    }
+
+    private static final class Region {
+
+        private final EntityCacheStore store;
+        private final LongAdder        hits   = new LongAdder();
+        private final LongAdder        misses = new LongAdder();
+
+        Region(EntityCacheStore store) {
+            this.store = store;
+        }
+    }
+
+    @Getter
+    public static class Stats {
+
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final int  size;
+
+        Stats(long hits, long misses, long evictions, int size) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.size = size;
+        }
+
+        public double hitRatio() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return "EntityCache{hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + ", size=" + size + "}";
+        }
+    }
+
+}
@@ -0,0 +1,45 @@
+package io.github.balala.core.cache;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Entity Cache Store
+ * <p>
+ * The storage and eviction policy of one model's rows in the {@link EntityCache}, keyed by
+ * String.valueOf(pk). Implementations are called from any event loop and must be thread-safe.
+ * Plug another policy, like a W-TinyLFU cache, with {@link EntityCache#setStoreFactory(Factory)}.
+ *
+ * @author yizmao
+ */
+public interface EntityCacheStore {
+
+    /**
+     * @return the row, null when absent or expired
+     */
+    JsonObject get(String key);
+
+    void put(String key, JsonObject row);
+
+    void invalidate(String key);
+
+    void invalidateAll();
+
+    int size();
+
+    /**
+     * @return rows evicted by size or expiry so far
+     */
+    long evictions();
+
+    @FunctionalInterface
+    interface Factory {
+
+        /**
+         * @param maxSize   max rows
+         * @param ttlMillis time to live, 0 never expires
+         * @return store of one model
+         */
+        EntityCacheStore create(int maxSize, long ttlMillis);
+    }
+
+}
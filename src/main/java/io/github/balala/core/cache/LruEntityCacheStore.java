@@ -0,0 +1,89 @@
+package io.github.balala.core.cache;
+
+import io.vertx.core.json.JsonObject;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU Entity Cache Store
+ * <p>
+ * The default store: an access-ordered map bounded by size, rows expire after the TTL.
+ *
+ * @author yizmao
+ */
+public class LruEntityCacheStore implements EntityCacheStore {
+
+    private final int  maxSize;
+    private final long ttlMillis;
+    private       long evictions;
+
+    private final LinkedHashMap<String, CachedRow> entries;
+
+    public LruEntityCacheStore(int maxSize, long ttlMillis) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<String, CachedRow>(Math.min(maxSize, 1024), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedRow> eldest) {
+                if (size() > LruEntityCacheStore.this.maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public synchronized JsonObject get(String key) {
+        CachedRow entry = entries.get(key);
+        if (null == entry) {
+            return null;
+        }
+        if (ttlMillis > 0 && entry.expireAt < System.currentTimeMillis()) {
+            entries.remove(key);
+            evictions++;
+            return null;
+        }
+        return entry.row;
+    }
+
+    @Override
+    public synchronized void put(String key, JsonObject row) {
+        long expireAt = ttlMillis > 0 ? System.currentTimeMillis() + ttlMillis : Long.MAX_VALUE;
+        entries.put(key, new CachedRow(row, expireAt));
+    }
+
+    @Override
+    public synchronized void invalidate(String key) {
+        entries.remove(key);
+    }
+
+    @Override
+    public synchronized void invalidateAll() {
+        entries.clear();
+    }
+
+    @Override
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized long evictions() {
+        return evictions;
+    }
+
+    private static final class CachedRow {
+
+        private final JsonObject row;
+        private final long       expireAt;
+
+        CachedRow(JsonObject row, long expireAt) {
+            this.row = row;
+            this.expireAt = expireAt;
+        }
+    }
+
+}
@@ -0,0 +1,186 @@
+package io.github.balala.core.cache;
+
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.sql.ResultSet;
+import lombok.Getter;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Query Cache
+ * <p>
+ * Result sets of queries opted in with {@code BalalaQuery.cached(Duration)}, keyed by table,
+ * final SQL and params. Every table has a version that is part of the key: a write through
+ * BalalaUpdate bumps it, so all cached results of the table miss from then on and age out
+ * of the cache. Entries are weighed by their encoded size, and the least recently used are
+ * evicted once the total weight exceeds {@link #setMaxWeight(long)}.
+ *
+ * @author yizmao
+ */
+public final class QueryCache {
+
+    private static final Map<String, AtomicLong> VERSIONS = new ConcurrentHashMap<>(16);
+
+    private static final LinkedHashMap<String, Entry> ENTRIES = new LinkedHashMap<>(256, 0.75f, true);
+
+    private static final LongAdder HITS      = new LongAdder();
+    private static final LongAdder MISSES    = new LongAdder();
+    private static final LongAdder EVICTIONS = new LongAdder();
+
+    private static long weight;
+
+    private static volatile long maxWeight = 32L * 1024 * 1024;
+
+    private QueryCache() {
+    }
+
+    /**
+     * @param chars max total weight, roughly the characters of the cached results as JSON
+     */
+    public static void setMaxWeight(long chars) {
+        maxWeight = chars;
+    }
+
+    /**
+     * Get the result set of a query, running it on a miss.
+     *
+     * @param table     table the query reads
+     * @param sql       final sql
+     * @param params    bound values
+     * @param ttlMillis time to live of the result
+     * @param query     runs the query
+     * @return result set, a copy when cached
+     */
+    public static Future<ResultSet> get(String table, String sql, JsonArray params, long ttlMillis,
+                                        Supplier<Future<ResultSet>> query) {
+        long   version = version(table).get();
+        String key     = table + '\u0000' + version + '\u0000' + sql + '\u0000' + params.encode();
+        Entry  entry;
+        synchronized (ENTRIES) {
+            entry = ENTRIES.get(key);
+            if (null != entry && entry.expireAt < System.currentTimeMillis()) {
+                remove(key, entry);
+                entry = null;
+            }
+        }
+        if (null != entry) {
+            HITS.increment();
+            return Future.succeededFuture(new ResultSet(entry.resultSet.copy()));
+        }
+        MISSES.increment();
+        return query.get().map(resultSet -> {
+            if (version(table).get() == version) {
+                put(key, resultSet.toJson().copy(), ttlMillis);
+            }
+            return resultSet;
+        });
+    }
+
+    /**
+     * Drop all cached results of a table.
+     *
+     * @param table table name
+     */
+    public static void invalidate(String table) {
+        version(table).incrementAndGet();
+    }
+
+    public static void clear() {
+        synchronized (ENTRIES) {
+            ENTRIES.clear();
+            weight = 0;
+        }
+    }
+
+    public static Stats stats() {
+        synchronized (ENTRIES) {
+            return new Stats(HITS.sum(), MISSES.sum(), EVICTIONS.sum(), ENTRIES.size(), weight);
+        }
+    }
+
+    private static AtomicLong version(String table) {
+        AtomicLong version = VERSIONS.get(table);
+        if (null != version) {
+            return version;
+        }
+        return VERSIONS.computeIfAbsent(table, key -> new AtomicLong());
+    }
+
+    private static void put(String key, JsonObject resultSet, long ttlMillis) {
+        long entryWeight = key.length() + resultSet.encode().length();
+        long max         = maxWeight;
+        if (entryWeight > max) {
+            return;
+        }
+        synchronized (ENTRIES) {
+            Entry previous = ENTRIES.put(key, new Entry(resultSet, entryWeight, System.currentTimeMillis() + ttlMillis));
+            if (null != previous) {
+                weight -= previous.weight;
+            }
+            weight += entryWeight;
+            Iterator<Entry> iterator = ENTRIES.values().iterator();
+            while (weight > max && iterator.hasNext()) {
+                weight -= iterator.next().weight;
+                iterator.remove();
+                EVICTIONS.increment();
+            }
+        }
+    }
+
+    private static void remove(String key, Entry entry) {
+        ENTRIES.remove(key);
+        weight -= entry.weight;
+        EVICTIONS.increment();
+    }
+
+    private static final class Entry {
+
+        private final JsonObject resultSet;
+        private final long       weight;
+        private final long       expireAt;
+
+        Entry(JsonObject resultSet, long weight, long expireAt) {
+            this.resultSet = resultSet;
+            this.weight = weight;
+            this.expireAt = expireAt;
+        }
+    }
+
+    @Getter
+    public static class Stats {
+
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final int  size;
+        private final long weight;
+
+        Stats(long hits, long misses, long evictions, int size, long weight) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.size = size;
+            this.weight = weight;
+        }
+
+        public double hitRatio() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return "QueryCache{hits=" + hits + ", misses=" + misses + ", evictions=" + evictions
+                    + ", size=" + size + ", weight=" + weight + "}";
+        }
+    }
+
+}
@@ -16,9 +16,12 @@
 package io.github.balala.core.dml;
 
 
+import io.github.balala.Balala;
 import io.github.balala.Model;
+import io.github.balala.Transaction;
 import io.github.balala.core.BalalaQuery;
 import io.github.balala.enums.DMLType;
+import lombok.NoArgsConstructor;
 
 /**
  * Delete From
@@ -26,10 +29,36 @@ import io.github.balala.enums.DMLType;
  * @author biezhi
  * @date 2018/3/18
  */
+@NoArgsConstructor
 public class Delete {
 
+    /**
+     * Instance the statement runs on, {@link Balala#me()} when null
+     */
+    private Balala balala;
+
+    /**
+     * Transaction the statement runs in, null for a pooled connection
+     */
+    private Transaction tx;
+
+    public Delete(Balala balala) {
+        this.balala = balala;
+    }
+
+    public Delete(Balala balala, Transaction tx) {
+        this.balala = balala;
+        this.tx = tx;
+    }
+
     public <T extends Model> BalalaQuery<T> from(Class<T> modelClass) {
-        return new BalalaQuery<T>(DMLType.DELETE).parse(modelClass);
+        if (null == balala) {
+            return new BalalaQuery<T>(DMLType.DELETE).parse(modelClass);
+        }
+        if (null != tx) {
+            return new BalalaQuery<T>(DMLType.DELETE).using(tx).parse(modelClass);
+        }
+        return new BalalaQuery<T>(DMLType.DELETE).using(balala).parse(modelClass);
     }
 
 }
@@ -16,7 +16,9 @@
 package io.github.balala.core.dml;
 
 
+import io.github.balala.Balala;
 import io.github.balala.Model;
+import io.github.balala.Transaction;
 import io.github.balala.core.BalalaQuery;
 import io.github.balala.core.ResultList;
 import io.vertx.core.json.JsonArray;
@@ -33,16 +35,43 @@ public class Select {
 
     private String columns;
 
+    /**
+     * Instance the statement runs on, {@link Balala#me()} when null
+     */
+    private Balala balala;
+
+    /**
+     * Transaction the statement runs in, null for a pooled connection
+     */
+    private Transaction tx;
+
     public Select(String columns) {
         this.columns = columns;
     }
 
+    public Select(Balala balala, String columns) {
+        this.balala = balala;
+        this.columns = columns;
+    }
+
+    public Select(Balala balala, Transaction tx, String columns) {
+        this.balala = balala;
+        this.tx = tx;
+        this.columns = columns;
+    }
+
     public <T extends Model> BalalaQuery<T> from(Class<T> modelClass) {
-        return new BalalaQuery<>(modelClass).select(this.columns);
+        if (null == balala) {
+            return new BalalaQuery<>(modelClass).select(this.columns);
+        }
+        if (null != tx) {
+            return new BalalaQuery<T>().using(tx).parse(modelClass).select(this.columns);
+        }
+        return new BalalaQuery<T>().using(balala).parse(modelClass).select(this.columns);
     }
 
     public <T> ResultList<T> bySQL(Class<T> type, String sql, JsonArray params) {
-        return new ResultList<>(type, sql, params);
+        return new ResultList<>(balala, tx, type, sql, params);
     }
 
 }
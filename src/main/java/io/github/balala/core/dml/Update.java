@@ -15,9 +15,12 @@
  */
 package io.github.balala.core.dml;
 
+import io.github.balala.Balala;
 import io.github.balala.Model;
+import io.github.balala.Transaction;
 import io.github.balala.core.BalalaUpdate;
 import io.github.balala.enums.DMLType;
+import lombok.NoArgsConstructor;
 
 
 /**
@@ -26,10 +29,36 @@ import io.github.balala.enums.DMLType;
  * @author biezhi
  * @date 2018/3/18
  */
+@NoArgsConstructor
 public class Update {
 
+    /**
+     * Instance the statement runs on, {@link Balala#me()} when null
+     */
+    private Balala balala;
+
+    /**
+     * Transaction the statement runs in, null for a pooled connection
+     */
+    private Transaction tx;
+
+    public Update(Balala balala) {
+        this.balala = balala;
+    }
+
+    public Update(Balala balala, Transaction tx) {
+        this.balala = balala;
+        this.tx = tx;
+    }
+
     public <T extends Model> BalalaUpdate<T> from(Class<T> modelClass) {
-        return new BalalaUpdate<T>(DMLType.UPDATE).parse(modelClass);
+        if (null == balala) {
+            return new BalalaUpdate<T>(DMLType.UPDATE).parse(modelClass);
+        }
+        if (null != tx) {
+            return new BalalaUpdate<T>(DMLType.UPDATE).using(tx).parse(modelClass);
+        }
+        return new BalalaUpdate<T>(DMLType.UPDATE).using(balala).parse(modelClass);
     }
 
 }
@@ -0,0 +1,142 @@
+package io.github.balala.core.mapper;
+
+import io.github.balala.core.AnimaCache;
+import io.github.balala.core.ColumnMeta;
+import io.github.balala.core.ModelMeta;
+import io.github.balala.exception.AnimaException;
+import io.github.balala.utils.AnimaUtils;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.sql.ResultSet;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Row Mapper
+ * <p>
+ * Maps the positional rows of a {@link ResultSet} straight onto model instances.
+ * A mapper is compiled once per model and column list, so mapping a row is one
+ * constructor call plus one converter and setter per column.
+ *
+ * @author yizmao
+ */
+public class RowMapper<T> {
+
+    private final Constructor<T>   constructor;
+    private final List<String>     columnNames;
+    private final ColumnMeta[]     columns;
+    private final ValueConverter[] converters;
+
+    public RowMapper(Class<T> type, List<String> columnNames) {
+        try {
+            this.constructor = type.getDeclaredConstructor();
+            this.constructor.setAccessible(true);
+        } catch (NoSuchMethodException e) {
+            throw new AnimaException(type.getName() + " must have a no-arg constructor", e);
+        }
+        ModelMeta modelMeta = AnimaCache.getModelMeta(type);
+        this.columnNames = columnNames;
+        this.columns = new ColumnMeta[columnNames.size()];
+        this.converters = new ValueConverter[columnNames.size()];
+        for (int i = 0; i < columns.length; i++) {
+            ColumnMeta column = findColumn(modelMeta, columnNames.get(i));
+            if (null != column) {
+                columns[i] = column;
+                converters[i] = ValueConverters.of(column);
+            }
+        }
+    }
+
+    /**
+     * Get the compiled mapper of a model for the given result columns.
+     *
+     * @param type        model type
+     * @param columnNames result set column names
+     * @param <T>
+     * @return RowMapper
+     */
+    public static <T> RowMapper<T> of(Class<T> type, List<String> columnNames) {
+        return AnimaCache.getRowMapper(type, columnNames);
+    }
+
+    public T map(JsonArray row) {
+        T model = newInstance();
+        for (int i = 0; i < columns.length; i++) {
+            ColumnMeta column = columns[i];
+            if (null == column) {
+                continue;
+            }
+            Object value = row.getValue(i);
+            if (null == value) {
+                continue;
+            }
+            column.setValue(model, converters[i].convert(value));
+        }
+        return model;
+    }
+
+    /**
+     * Map a row that has already been materialized as a JsonObject, e.g. by a cache.
+     *
+     * @param row json row
+     * @return model
+     */
+    public T map(JsonObject row) {
+        T model = newInstance();
+        for (int i = 0; i < columns.length; i++) {
+            ColumnMeta column = columns[i];
+            if (null == column) {
+                continue;
+            }
+            Object value = row.getValue(columnNames.get(i));
+            if (null == value) {
+                continue;
+            }
+            column.setValue(model, converters[i].convert(value));
+        }
+        return model;
+    }
+
+    public List<T> mapAll(ResultSet resultSet) {
+        List<JsonArray> results = resultSet.getResults();
+        List<T>         models  = new ArrayList<>(results.size());
+        for (JsonArray row : results) {
+            models.add(this.map(row));
+        }
+        return models;
+    }
+
+    /**
+     * Map the first row of a result set.
+     *
+     * @return model, null if the result set is empty
+     */
+    public T mapOne(ResultSet resultSet) {
+        List<JsonArray> results = resultSet.getResults();
+        return results.isEmpty() ? null : this.map(results.get(0));
+    }
+
+    private T newInstance() {
+        try {
+            return constructor.newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AnimaException("create model instance fail: " + constructor.getDeclaringClass().getName(), e);
+        }
+    }
+
+    private static ColumnMeta findColumn(ModelMeta modelMeta, String columnName) {
+        ColumnMeta column = modelMeta.getColumn(columnName);
+        if (null != column) {
+            return column;
+        }
+        for (ColumnMeta candidate : modelMeta.getColumns()) {
+            if (candidate.getColumnName().equalsIgnoreCase(columnName)) {
+                return candidate;
+            }
+        }
+        return modelMeta.getColumnByField(AnimaUtils.toFieldName(columnName.toLowerCase()));
+    }
+
+}
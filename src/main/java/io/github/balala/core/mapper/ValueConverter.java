@@ -0,0 +1,17 @@
+package io.github.balala.core.mapper;
+
+/**
+ * Convert a value read from a vert.x result row to the type of a model field.
+ *
+ * @author yizmao
+ */
+@FunctionalInterface
+public interface ValueConverter {
+
+    /**
+     * @param value column value, not null
+     * @return field value
+     */
+    Object convert(Object value);
+
+}
@@ -0,0 +1,191 @@
+package io.github.balala.core.mapper;
+
+import io.github.balala.annotation.EnumMapping;
+import io.github.balala.core.ColumnMeta;
+import io.github.balala.exception.AnimaException;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Chooses a {@link ValueConverter} for a model field once, when a row mapper is compiled.
+ * <p>
+ * vert.x hands rows over as JSON types: numbers, booleans, strings (dates and times are
+ * ISO-8601 strings) and binaries.
+ *
+ * @author yizmao
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class ValueConverters {
+
+    private static final ValueConverter IDENTITY = value -> value;
+
+    public static ValueConverter of(ColumnMeta column) {
+        Class<?> type = column.getFieldType();
+        if (type.isEnum()) {
+            return ofEnum(type, column.getEnumMapping());
+        }
+        if (type == Object.class) {
+            return IDENTITY;
+        }
+        ValueConverter converter = of(type);
+        return value -> type.isInstance(value) ? value : converter.convert(value);
+    }
+
+    static ValueConverter of(Class<?> type) {
+        if (type == String.class) {
+            return Object::toString;
+        }
+        if (type == Integer.class || type == int.class) {
+            return value -> value instanceof Number ? ((Number) value).intValue() : Integer.valueOf(value.toString());
+        }
+        if (type == Long.class || type == long.class) {
+            return value -> value instanceof Number ? ((Number) value).longValue() : Long.valueOf(value.toString());
+        }
+        if (type == Short.class || type == short.class) {
+            return value -> value instanceof Number ? ((Number) value).shortValue() : Short.valueOf(value.toString());
+        }
+        if (type == Byte.class || type == byte.class) {
+            return value -> value instanceof Number ? ((Number) value).byteValue() : Byte.valueOf(value.toString());
+        }
+        if (type == Double.class || type == double.class) {
+            return value -> value instanceof Number ? ((Number) value).doubleValue() : Double.valueOf(value.toString());
+        }
+        if (type == Float.class || type == float.class) {
+            return value -> value instanceof Number ? ((Number) value).floatValue() : Float.valueOf(value.toString());
+        }
+        if (type == Boolean.class || type == boolean.class) {
+            return ValueConverters::toBoolean;
+        }
+        if (type == Character.class || type == char.class) {
+            return value -> value.toString().charAt(0);
+        }
+        if (type == BigDecimal.class) {
+            return value -> new BigDecimal(value.toString());
+        }
+        if (type == BigInteger.class) {
+            return value -> new BigInteger(value.toString());
+        }
+        if (type == Instant.class) {
+            return ValueConverters::toInstant;
+        }
+        if (type == LocalDateTime.class) {
+            return value -> toLocalDateTime(value.toString());
+        }
+        if (type == LocalDate.class) {
+            return value -> LocalDate.parse(datePart(value.toString()));
+        }
+        if (type == LocalTime.class) {
+            return value -> LocalTime.parse(value.toString());
+        }
+        if (type == java.sql.Timestamp.class) {
+            return value -> java.sql.Timestamp.from(toInstant(value));
+        }
+        if (type == java.sql.Date.class) {
+            return value -> java.sql.Date.valueOf(LocalDate.parse(datePart(value.toString())));
+        }
+        if (type == java.sql.Time.class) {
+            return value -> java.sql.Time.valueOf(LocalTime.parse(value.toString()));
+        }
+        if (type == Date.class) {
+            return value -> Date.from(toInstant(value));
+        }
+        if (type == byte[].class) {
+            return value -> Base64.getDecoder().decode(value.toString());
+        }
+        return value -> {
+            throw new AnimaException("Unsupported conversion from " + value.getClass().getName() + " to " + type.getName());
+        };
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static ValueConverter ofEnum(Class<?> type, String enumMapping) {
+        Enum<?>[]            constants = ((Class<? extends Enum>) type).getEnumConstants();
+        Map<String, Enum<?>> byString  = new HashMap<>(constants.length * 2);
+        for (Enum<?> constant : constants) {
+            byString.put(constant.toString(), constant);
+            byString.putIfAbsent(constant.name(), constant);
+        }
+        boolean ordinal = EnumMapping.ORDINAL.equals(enumMapping);
+        return value -> {
+            Enum<?> constant;
+            if (ordinal || value instanceof Number) {
+                int index = ordinal(value);
+                constant = index >= 0 && index < constants.length ? constants[index] : null;
+            } else {
+                constant = byString.get(value.toString());
+            }
+            if (null == constant) {
+                throw new AnimaException("No enum constant " + type.getName() + "." + value);
+            }
+            return constant;
+        };
+    }
+
+    /**
+     * Ordinal of a numeric column, or of a text column holding a number; -1 when not a number.
+     */
+    private static int ordinal(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        try {
+            return Integer.parseInt(value.toString().trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static Object toBoolean(Object value) {
+        if (value instanceof Boolean) {
+            return value;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).intValue() != 0;
+        }
+        String text = value.toString();
+        return "1".equals(text) || Boolean.parseBoolean(text);
+    }
+
+    private static Instant toInstant(Object value) {
+        if (value instanceof Number) {
+            return Instant.ofEpochMilli(((Number) value).longValue());
+        }
+        if (value instanceof Instant) {
+            return (Instant) value;
+        }
+        String text = value.toString();
+        try {
+            return Instant.parse(text);
+        } catch (DateTimeParseException e) {
+            return toLocalDateTime(text).atZone(ZoneId.systemDefault()).toInstant();
+        }
+    }
+
+    /**
+     * The JDBC client renders timestamps as UTC instants, the async clients as local date-times.
+     */
+    private static LocalDateTime toLocalDateTime(String text) {
+        if (text.endsWith("Z")) {
+            return LocalDateTime.ofInstant(Instant.parse(text), ZoneId.systemDefault());
+        }
+        return LocalDateTime.parse(text.replace(' ', 'T'));
+    }
+
+    private static String datePart(String text) {
+        return text.length() > 10 ? text.substring(0, 10) : text;
+    }
+
+}
@@ -0,0 +1,178 @@
+package io.github.balala.core.metrics;
+
+import io.github.balala.enums.DMLType;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Balala Metrics
+ * <p>
+ * Default {@link ExecutionListener}: counts, errors, rows and timings per query shape, the
+ * statement with its placeholders, so that the shapes taking the database time stand out.
+ * Execution times go to a histogram of power-of-two microsecond buckets, which records with
+ * a few atomic increments and no allocation once the shape is known.
+ * <p>
+ * Publish the shapes to a metrics registry by polling {@link #getShapes()}.
+ *
+ * @author yizmao
+ */
+public class BalalaMetrics implements ExecutionListener {
+
+    /**
+     * Shape of the statements past {@link #getMaxShapes()}, like ad-hoc SQL with inlined values
+     */
+    public static final String OTHER = "other";
+
+    private final Map<String, Shape> shapes = new ConcurrentHashMap<>(64);
+
+    /**
+     * Max shapes tracked, the statements of any other shape are recorded under {@link #OTHER}
+     */
+    @Getter
+    @Setter
+    private int maxShapes = 1000;
+
+    @Override
+    public void onExecution(Execution execution) {
+        this.shape(execution).record(execution);
+    }
+
+    /**
+     * @return metrics by statement
+     */
+    public Map<String, Shape> getShapes() {
+        return Collections.unmodifiableMap(shapes);
+    }
+
+    /**
+     * @param sql statement with placeholders
+     * @return metrics of the statement, null when it never ran
+     */
+    public Shape getShape(String sql) {
+        return shapes.get(sql);
+    }
+
+    public void reset() {
+        shapes.clear();
+    }
+
+    private Shape shape(Execution execution) {
+        Shape shape = shapes.get(execution.getSql());
+        if (null != shape) {
+            return shape;
+        }
+        String sql = shapes.size() < maxShapes ? execution.getSql() : OTHER;
+        return shapes.computeIfAbsent(sql, key -> new Shape(key, execution.getModelClass(), execution.getDmlType()));
+    }
+
+    /**
+     * Metrics of one query shape.
+     */
+    public static class Shape {
+
+        private static final int BUCKETS = 32;
+
+        @Getter
+        private final String   sql;
+        @Getter
+        private final Class<?> modelClass;
+        @Getter
+        private final DMLType  dmlType;
+
+        private final LongAdder       count        = new LongAdder();
+        private final LongAdder       errors       = new LongAdder();
+        private final LongAdder       rows         = new LongAdder();
+        private final LongAdder       acquireNanos = new LongAdder();
+        private final LongAdder       executeNanos = new LongAdder();
+        private final AtomicLongArray histogram    = new AtomicLongArray(BUCKETS);
+
+        Shape(String sql, Class<?> modelClass, DMLType dmlType) {
+            this.sql = sql;
+            this.modelClass = modelClass;
+            this.dmlType = dmlType;
+        }
+
+        private void record(Execution execution) {
+            count.increment();
+            if (execution.isFailed()) {
+                errors.increment();
+            } else {
+                rows.add(execution.getRows());
+            }
+            acquireNanos.add(execution.getAcquireNanos());
+            executeNanos.add(execution.getExecuteNanos());
+            long micros = TimeUnit.NANOSECONDS.toMicros(execution.getExecuteNanos());
+            histogram.incrementAndGet(Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros)));
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        public long getRows() {
+            return rows.sum();
+        }
+
+        /**
+         * @return nanoseconds spent waiting for connections
+         */
+        public long getAcquireNanos() {
+            return acquireNanos.sum();
+        }
+
+        /**
+         * @return nanoseconds spent running on connections
+         */
+        public long getExecuteNanos() {
+            return executeNanos.sum();
+        }
+
+        /**
+         * Execution time under which the given share of executions completed, rounded up
+         * to a power of two.
+         *
+         * @param percentile like 0.99
+         * @return microseconds, 0 when it never ran
+         */
+        public long percentileMicros(double percentile) {
+            long[] counts = new long[BUCKETS];
+            long   total  = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = histogram.get(i);
+                total += counts[i];
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(percentile * total);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return i == 0 ? 0 : 1L << i;
+                }
+            }
+            return 1L << (BUCKETS - 1);
+        }
+
+        @Override
+        public String toString() {
+            return "Shape{sql=" + sql + ", count=" + getCount() + ", errors=" + getErrors() + ", rows=" + getRows()
+                    + ", acquireMillis=" + TimeUnit.NANOSECONDS.toMillis(getAcquireNanos())
+                    + ", executeMillis=" + TimeUnit.NANOSECONDS.toMillis(getExecuteNanos())
+                    + ", p99Micros=" + percentileMicros(0.99) + "}";
+        }
+    }
+
+}
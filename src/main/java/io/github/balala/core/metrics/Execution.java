@@ -0,0 +1,80 @@
+package io.github.balala.core.metrics;
+
+import io.github.balala.enums.DMLType;
+import io.vertx.core.json.JsonArray;
+import lombok.Getter;
+
+/**
+ * Execution
+ * <p>
+ * One statement run by an instance: its shape, what it did and where its time went.
+ *
+ * @author yizmao
+ */
+@Getter
+public class Execution {
+
+    /**
+     * Name of the Balala instance
+     */
+    private final String instance;
+
+    /**
+     * Statement with placeholders, the shape shared by all its executions
+     */
+    private final String sql;
+
+    /**
+     * Bound values
+     */
+    private final JsonArray params;
+
+    /**
+     * Model of the statement, null for raw SQL
+     */
+    private final Class<?> modelClass;
+
+    private final DMLType dmlType;
+
+    /**
+     * Nanoseconds spent waiting for a connection, 0 on the connection of a transaction
+     */
+    private final long acquireNanos;
+
+    /**
+     * Nanoseconds spent running on the connection
+     */
+    private final long executeNanos;
+
+    /**
+     * Rows returned or affected, -1 when failed
+     */
+    private final int rows;
+
+    /**
+     * Cause of the failure, null when succeeded
+     */
+    private final Throwable error;
+
+    public Execution(String instance, String sql, JsonArray params, Class<?> modelClass, DMLType dmlType,
+                     long acquireNanos, long executeNanos, int rows, Throwable error) {
+        this.instance = instance;
+        this.sql = sql;
+        this.params = params;
+        this.modelClass = modelClass;
+        this.dmlType = dmlType;
+        this.acquireNanos = acquireNanos;
+        this.executeNanos = executeNanos;
+        this.rows = rows;
+        this.error = error;
+    }
+
+    public boolean isFailed() {
+        return null != error;
+    }
+
+    public long getTotalNanos() {
+        return acquireNanos + executeNanos;
+    }
+
+}
@@ -0,0 +1,32 @@
+package io.github.balala.core.metrics;
+
+/**
+ * Execution Listener
+ * <p>
+ * Notified once per statement an instance runs, queries, updates and batch chunks alike,
+ * on the thread that completed it. Listeners run on the event loop: keep them short and
+ * non-blocking, and hand anything heavier to another thread.
+ *
+ * @author yizmao
+ * @see io.github.balala.Balala#listener(ExecutionListener)
+ */
+@FunctionalInterface
+public interface ExecutionListener {
+
+    /**
+     * @param execution the completed statement
+     */
+    void onExecution(Execution execution);
+
+    /**
+     * Whether to be notified of a statement, asked before its {@link Execution} is built:
+     * when no listener accepts a statement, nothing is allocated for it.
+     *
+     * @param totalNanos connection wait and execution time of the statement
+     * @return true to be notified
+     */
+    default boolean accepts(long totalNanos) {
+        return true;
+    }
+
+}
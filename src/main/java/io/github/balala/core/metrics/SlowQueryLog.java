@@ -0,0 +1,124 @@
+package io.github.balala.core.metrics;
+
+import io.vertx.core.json.JsonArray;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Slow Query Log
+ * <p>
+ * Logs the statements slower than a threshold, connection wait included, as one warning
+ * of key=value pairs: a normalized fingerprint of the SQL grouping the statements of one
+ * shape, duration, wait, rows, model and params. Params are redacted to their types unless
+ * sampled by {@link #getParamSampleRate()}. A statement under the threshold costs one comparison
+ * and no allocation.
+ * <pre>
+ * Balala.me().listener(new SlowQueryLog(Duration.ofMillis(200)));
+ * </pre>
+ *
+ * @author yizmao
+ */
+@Slf4j
+public class SlowQueryLog implements ExecutionListener {
+
+    private static final Pattern STRINGS     = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBERS     = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern LISTS       = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern ROWS        = Pattern.compile("(\\(\\?\\+\\))(?:\\s*,\\s*\\(\\?\\+\\))+");
+    private static final Pattern WHITESPACES = Pattern.compile("\\s+");
+
+    private static final int MAX_PARAMS       = 20;
+    private static final int MAX_PARAM_LENGTH = 64;
+
+    private volatile long thresholdNanos;
+
+    /**
+     * Share of slow statements logged with their param values, the others show the types only
+     */
+    @Getter
+    @Setter
+    private double paramSampleRate;
+
+    public SlowQueryLog(Duration threshold) {
+        this.setThreshold(threshold);
+    }
+
+    public Duration getThreshold() {
+        return Duration.ofNanos(thresholdNanos);
+    }
+
+    public void setThreshold(Duration threshold) {
+        this.thresholdNanos = threshold.toNanos();
+    }
+
+    @Override
+    public boolean accepts(long totalNanos) {
+        return totalNanos >= thresholdNanos && log.isWarnEnabled();
+    }
+
+    @Override
+    public void onExecution(Execution execution) {
+        if (!this.accepts(execution.getTotalNanos())) {
+            return;
+        }
+        String fingerprint = fingerprint(execution.getSql());
+        log.warn("slow query fingerprint=\"{}\" id={} millis={} waitMillis={} rows={} type={} model={} params={} error={}",
+                fingerprint, Integer.toHexString(fingerprint.hashCode()),
+                TimeUnit.NANOSECONDS.toMillis(execution.getTotalNanos()),
+                TimeUnit.NANOSECONDS.toMillis(execution.getAcquireNanos()),
+                execution.getRows(), execution.getDmlType(),
+                null != execution.getModelClass() ? execution.getModelClass().getSimpleName() : null,
+                this.params(execution.getParams()),
+                execution.isFailed() ? execution.getError().toString() : null);
+    }
+
+    /**
+     * Normalize a statement: literals and placeholders become {@code ?}, lists of them
+     * {@code (?+)} whatever their length, one element included, the rows of a multi-row
+     * insert a single {@code (?+)}, and whitespace a single space.
+     *
+     * @param sql sql statement
+     * @return fingerprint
+     */
+    public static String fingerprint(String sql) {
+        String fingerprint = STRINGS.matcher(sql).replaceAll("?");
+        fingerprint = NUMBERS.matcher(fingerprint).replaceAll("?");
+        fingerprint = LISTS.matcher(fingerprint).replaceAll("(?+)");
+        fingerprint = ROWS.matcher(fingerprint).replaceAll("$1");
+        return WHITESPACES.matcher(fingerprint).replaceAll(" ").trim();
+    }
+
+    private String params(JsonArray params) {
+        if (null == params || params.isEmpty()) {
+            return "[]";
+        }
+        boolean       sampled = paramSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < paramSampleRate;
+        StringBuilder out     = new StringBuilder("[");
+        int           size    = Math.min(params.size(), MAX_PARAMS);
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                out.append(", ");
+            }
+            Object value = params.getValue(i);
+            if (null == value) {
+                out.append("null");
+            } else if (sampled) {
+                String text = value.toString();
+                out.append(text.length() > MAX_PARAM_LENGTH ? text.substring(0, MAX_PARAM_LENGTH) + "..." : text);
+            } else {
+                out.append(value.getClass().getSimpleName());
+            }
+        }
+        if (params.size() > size) {
+            out.append(", ... ").append(params.size() - size).append(" more");
+        }
+        return out.append(']').toString();
+    }
+
+}
@@ -0,0 +1,49 @@
+package io.github.balala.core.shard;
+
+import java.util.List;
+
+/**
+ * Shard by key modulo the number of shards. Integral keys use their value, other keys the
+ * hash of their string form, so the same key lands on the same shard in every JVM. A key
+ * written as an integer, like {@code where("id", "5")}, counts as integral: it lands with
+ * {@code where("id", 5)}, as the database compares it to a numeric column.
+ *
+ * @author yizmao
+ */
+public class HashShardStrategy implements ShardStrategy {
+
+    @Override
+    public String shard(Object key, List<String> shards) {
+        long hash;
+        if (key instanceof Long || key instanceof Integer || key instanceof Short || key instanceof Byte) {
+            hash = ((Number) key).longValue();
+        } else {
+            String text     = String.valueOf(key);
+            Long   integral = integral(text);
+            hash = null != integral ? integral : text.hashCode();
+        }
+        return shards.get((int) Math.floorMod(hash, (long) shards.size()));
+    }
+
+    /**
+     * @return value of a key written as a long integer, null for any other key
+     */
+    private static Long integral(String text) {
+        int start = text.startsWith("-") ? 1 : 0;
+        if (text.length() == start || text.length() - start > 19) {
+            return null;
+        }
+        for (int i = start; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return null;
+            }
+        }
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,31 @@
+package io.github.balala.core.shard;
+
+import io.github.balala.exception.AnimaException;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Shard by a directory, like a tenant table or an in-memory map, giving the instance name of each key.
+ * Register it with {@link Sharding#setStrategy(Class, ShardStrategy)}.
+ *
+ * @author yizmao
+ */
+public class LookupShardStrategy implements ShardStrategy {
+
+    private final Function<Object, String> directory;
+
+    public LookupShardStrategy(Function<Object, String> directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public String shard(Object key, List<String> shards) {
+        String shard = directory.apply(key);
+        if (null == shard || !shards.contains(shard)) {
+            throw new AnimaException("No shard of " + shards + " holds the key " + key);
+        }
+        return shard;
+    }
+
+}
@@ -0,0 +1,44 @@
+package io.github.balala.core.shard;
+
+import io.github.balala.exception.AnimaException;
+
+import java.util.List;
+
+/**
+ * Shard by numeric key ranges: shard i holds the keys below {@code upperBounds[i]} and
+ * not in a previous shard, the last shard holds all remaining keys.
+ * <p>
+ * Subclass it with a no-arg constructor to use it in {@link io.github.balala.annotation.Sharded}.
+ *
+ * @author yizmao
+ */
+public class RangeShardStrategy implements ShardStrategy {
+
+    private final long[] upperBounds;
+
+    public RangeShardStrategy(long... upperBounds) {
+        for (int i = 1; i < upperBounds.length; i++) {
+            if (upperBounds[i] <= upperBounds[i - 1]) {
+                throw new AnimaException("Shard upper bounds must be ascending");
+            }
+        }
+        this.upperBounds = upperBounds.clone();
+    }
+
+    @Override
+    public String shard(Object key, List<String> shards) {
+        if (upperBounds.length != shards.size() - 1) {
+            throw new AnimaException(upperBounds.length + " upper bounds do not split " + shards.size() + " shards");
+        }
+        if (!(key instanceof Number)) {
+            throw new AnimaException("Range sharding needs a numeric key, got " + key);
+        }
+        long value = ((Number) key).longValue();
+        int  shard = 0;
+        while (shard < upperBounds.length && value >= upperBounds[shard]) {
+            shard++;
+        }
+        return shards.get(shard);
+    }
+
+}
@@ -0,0 +1,20 @@
+package io.github.balala.core.shard;
+
+import java.util.List;
+
+/**
+ * Picks the shard holding a shard key.
+ *
+ * @author yizmao
+ */
+@FunctionalInterface
+public interface ShardStrategy {
+
+    /**
+     * @param key    shard key value
+     * @param shards instance names of the shards, in declaration order
+     * @return instance name of the shard holding the key
+     */
+    String shard(Object key, List<String> shards);
+
+}
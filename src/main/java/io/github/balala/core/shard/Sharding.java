@@ -0,0 +1,330 @@
+package io.github.balala.core.shard;
+
+import io.github.balala.Balala;
+import io.github.balala.annotation.Sharded;
+import io.github.balala.core.AnimaCache;
+import io.github.balala.core.ColumnMeta;
+import io.github.balala.exception.AnimaException;
+import io.github.balala.utils.AnimaUtils;
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonArray;
+import io.vertx.ext.sql.ResultSet;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Sharding
+ * <p>
+ * Routes the statements of {@link Sharded} models. A statement fixing the shard key, by
+ * an equality condition or the key of a saved model, runs on one shard. A read without it
+ * runs on every shard, and the rows are merged in the order of the query; a write without
+ * it runs on every shard too.
+ * <p>
+ * The merge orders by numeric, boolean and temporal columns only. Text is ordered by the
+ * collation of the database, which the merge cannot reproduce, so a read across shards
+ * ordered by a text column fails: order it by another column or fix the shard key.
+ *
+ * @author yizmao
+ */
+public final class Sharding {
+
+    private static final Shards NONE = new Shards(null, Collections.emptyList(), null);
+
+    private static final Map<Class<?>, Shards> SHARDS = new ConcurrentHashMap<>(8);
+
+    private static final List<Function<String, Comparable<?>>> TEMPORAL_PARSERS = Arrays.asList(
+            OffsetDateTime::parse, LocalDateTime::parse, LocalDate::parse, LocalTime::parse);
+
+    private Sharding() {
+    }
+
+    /**
+     * Replace the strategy of a sharded model, for strategies configured at runtime.
+     *
+     * @param modelClass model class annotated with {@link Sharded}
+     * @param strategy   shard strategy
+     */
+    public static void setStrategy(Class<?> modelClass, ShardStrategy strategy) {
+        Shards shards = shards0(modelClass);
+        if (NONE == shards) {
+            throw new AnimaException(modelClass.getName() + " is not sharded");
+        }
+        SHARDS.put(modelClass, new Shards(shards.column, shards.names, strategy));
+    }
+
+    public static boolean isSharded(Class<?> modelClass) {
+        return NONE != shards0(modelClass);
+    }
+
+    /**
+     * @return shard key column of a sharded model
+     */
+    public static String getColumn(Class<?> modelClass) {
+        return shards0(modelClass).column;
+    }
+
+    /**
+     * @return instances of all shards of a sharded model
+     */
+    public static List<Balala> shards(Class<?> modelClass) {
+        List<String> names     = shards0(modelClass).names;
+        List<Balala> instances = new ArrayList<>(names.size());
+        for (String name : names) {
+            instances.add(Balala.get(name));
+        }
+        return instances;
+    }
+
+    /**
+     * @param modelClass sharded model class
+     * @param key        shard key value
+     * @return instance of the shard holding the key
+     */
+    public static Balala shard(Class<?> modelClass, Object key) {
+        if (null == key) {
+            throw new AnimaException("The shard key " + getColumn(modelClass) + " of " + modelClass.getSimpleName() + " is null");
+        }
+        Shards shards = shards0(modelClass);
+        return Balala.get(shards.strategy.shard(key, shards.names));
+    }
+
+    /**
+     * Instance of the shard a model is written to.
+     *
+     * @param model model with its shard key set
+     * @return instance of the shard holding the model
+     */
+    public static Balala shardOf(Object model) {
+        Class<?> modelClass = model.getClass();
+        Object   key        = keyOf(model);
+        if (null == key) {
+            String column = getColumn(modelClass);
+            String hint   = column.equalsIgnoreCase(AnimaCache.getPKColumn(modelClass))
+                    ? ", a primary key generated by the database is unknown until the row is inserted:"
+                    + " set it before writing or shard by another column with @Sharded(column = ...)" : "";
+            throw new AnimaException("Cannot write " + modelClass.getSimpleName() + " without its shard key " + column + hint);
+        }
+        return shard(modelClass, key);
+    }
+
+    /**
+     * @return shard key value of a model, null when not set
+     */
+    public static Object keyOf(Object model) {
+        String column = getColumn(model.getClass());
+        for (ColumnMeta columnMeta : AnimaCache.getModelMeta(model.getClass()).getColumns()) {
+            if (columnMeta.getColumnName().equalsIgnoreCase(column)) {
+                return columnMeta.getValue(model);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Instance owning the cached rows and results of a model: the first shard of a sharded
+     * model, whatever shard a statement runs on, so that writes reach every cached copy.
+     *
+     * @param modelClass model class
+     * @param balala     instance the statement runs on
+     * @return cache owner
+     */
+    public static Balala cacheOwner(Class<?> modelClass, Balala balala) {
+        if (null == modelClass || !isSharded(modelClass)) {
+            return balala;
+        }
+        return Balala.get(shards0(modelClass).names.get(0));
+    }
+
+    /**
+     * Merge the results of one query run on every shard.
+     *
+     * @param parts   result set of each shard
+     * @param orderBy order by clause of the query, like " age DESC, id", may be empty
+     * @return rows of all shards, ordered
+     */
+    @SuppressWarnings("rawtypes")
+    public static Future<ResultSet> gather(List<Future<ResultSet>> parts, String orderBy) {
+        Future<ResultSet> future = Future.future();
+        CompositeFuture.all(new ArrayList<Future>(parts)).setHandler(res -> {
+            if (res.failed()) {
+                future.fail(res.cause());
+                return;
+            }
+            List<String>    columnNames = null;
+            List<JsonArray> results     = new ArrayList<>();
+            for (Future<ResultSet> part : parts) {
+                ResultSet resultSet = part.result();
+                if (null == columnNames) {
+                    columnNames = resultSet.getColumnNames();
+                }
+                results.addAll(resultSet.getResults());
+            }
+            try {
+                if (AnimaUtils.isNotEmpty(orderBy) && results.size() > 1) {
+                    results = sort(results, columnNames, orderBy);
+                }
+                future.complete(new ResultSet(columnNames, results, null));
+            } catch (Exception e) {
+                future.fail(e);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Sort the rows by sort keys computed once per row and order column.
+     */
+    private static List<JsonArray> sort(List<JsonArray> rows, List<String> columnNames, String orderBy) {
+        String[]  orders     = orderBy.split(",");
+        int[]     positions  = new int[orders.length];
+        boolean[] descending = new boolean[orders.length];
+        for (int i = 0; i < orders.length; i++) {
+            String[] tokens = orders[i].trim().split("\\s+");
+            String   column = tokens[0].substring(tokens[0].lastIndexOf('.') + 1).replaceAll("[`\"\\[\\]]", "");
+            positions[i] = -1;
+            for (int j = 0; j < columnNames.size(); j++) {
+                if (columnNames.get(j).equalsIgnoreCase(column)) {
+                    positions[i] = j;
+                    break;
+                }
+            }
+            if (positions[i] < 0) {
+                throw new AnimaException("Cannot merge shards ordered by " + column + ", it is not selected");
+            }
+            descending[i] = tokens.length > 1 && "DESC".equalsIgnoreCase(tokens[1]);
+        }
+        @SuppressWarnings("unchecked")
+        Comparable<Object>[][] keys  = new Comparable[rows.size()][orders.length];
+        List<Integer>          order = new ArrayList<>(rows.size());
+        for (int row = 0; row < rows.size(); row++) {
+            for (int i = 0; i < orders.length; i++) {
+                keys[row][i] = sortKey(rows.get(row).getValue(positions[i]), columnNames.get(positions[i]));
+            }
+            order.add(row);
+        }
+        order.sort((a, b) -> {
+            for (int i = 0; i < orders.length; i++) {
+                int result = compare(keys[a][i], keys[b][i], columnNames.get(positions[i]));
+                if (result != 0) {
+                    return descending[i] ? -result : result;
+                }
+            }
+            return 0;
+        });
+        List<JsonArray> sorted = new ArrayList<>(rows.size());
+        for (int row : order) {
+            sorted.add(rows.get(row));
+        }
+        return sorted;
+    }
+
+    /**
+     * A value the merge orders like the database does: a number, a boolean or a point in time,
+     * which the JDBC client hands over as ISO-8601 text.
+     */
+    private static Comparable<Object> sortKey(Object value, String column) {
+        if (null == value) {
+            return null;
+        }
+        if (value instanceof Number) {
+            return cast(value instanceof BigDecimal ? value : new BigDecimal(value.toString()));
+        }
+        if (value instanceof Boolean || value instanceof Instant) {
+            return cast(value);
+        }
+        if (value instanceof String) {
+            Comparable<?> temporal = temporal((String) value);
+            if (null != temporal) {
+                return cast(temporal);
+            }
+        }
+        throw new AnimaException("Cannot merge shards ordered by " + column + ": " + value.getClass().getSimpleName()
+                + " values follow the collation of the database, order by a numeric or temporal column or add a shard key condition");
+    }
+
+    private static Comparable<?> temporal(String value) {
+        for (Function<String, Comparable<?>> parser : TEMPORAL_PARSERS) {
+            try {
+                return parser.apply(value);
+            } catch (DateTimeParseException e) {
+                // try the next format
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Nulls first, like MySQL ascending order.
+     */
+    private static int compare(Comparable<Object> a, Comparable<Object> b, String column) {
+        if (a == b) {
+            return 0;
+        }
+        if (null == a) {
+            return -1;
+        }
+        if (null == b) {
+            return 1;
+        }
+        if (a.getClass() != b.getClass()) {
+            throw new AnimaException("Cannot merge shards ordered by " + column + ", it mixes "
+                    + a.getClass().getSimpleName() + " and " + b.getClass().getSimpleName() + " values");
+        }
+        return a.compareTo(b);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparable<Object> cast(Object value) {
+        return (Comparable<Object>) value;
+    }
+
+    private static Shards shards0(Class<?> modelClass) {
+        Shards shards = SHARDS.get(modelClass);
+        if (null != shards) {
+            return shards;
+        }
+        return SHARDS.computeIfAbsent(modelClass, type -> {
+            Sharded sharded = type.getAnnotation(Sharded.class);
+            if (null == sharded) {
+                return NONE;
+            }
+            if (sharded.shards().length == 0) {
+                throw new AnimaException(type.getName() + " has no shards");
+            }
+            String column = AnimaUtils.isNotEmpty(sharded.column()) ? sharded.column() : AnimaCache.getPKColumn(type);
+            try {
+                return new Shards(column, Arrays.asList(sharded.shards()), sharded.strategy().newInstance());
+            } catch (InstantiationException | IllegalAccessException e) {
+                throw new AnimaException(e);
+            }
+        });
+    }
+
+    private static final class Shards {
+
+        private final String        column;
+        private final List<String>  names;
+        private final ShardStrategy strategy;
+
+        private Shards(String column, List<String> names, ShardStrategy strategy) {
+            this.column = column;
+            this.names = Collections.unmodifiableList(names);
+            this.strategy = strategy;
+        }
+    }
+
+}
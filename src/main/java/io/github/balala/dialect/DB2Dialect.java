@@ -1,5 +1,11 @@
 package io.github.balala.dialect;
 
+import io.github.balala.core.AnimaCache;
+import io.github.balala.core.ModelMeta;
+import io.github.balala.core.SQLParams;
+
+import java.util.List;
+
 /**
  * DB2 dialect
  *
@@ -8,4 +14,27 @@ package io.github.balala.dialect;
  */
 public class DB2Dialect extends OracleDialect {
 
+    /**
+     * DB2 takes multi-row VALUES, unlike Oracle.
+     */
+    @Override
+    public String insertBatch(SQLParams sqlParams, int rows) {
+        ModelMeta     modelMeta = AnimaCache.getModelMeta(sqlParams.getModelClass());
+        StringBuilder sql       = new StringBuilder(insert(sqlParams));
+        for (int i = 1; i < rows; i++) {
+            sql.append(",(").append(modelMeta.getInsertPlaceholders()).append(")");
+        }
+        return sql.toString();
+    }
+
+    @Override
+    public String upsertBatch(SQLParams sqlParams, int rows, List<String> conflictColumns, List<String> updateColumns) {
+        return mergeValues(sqlParams, rows, conflictColumns, updateColumns);
+    }
+
+    @Override
+    public String seek(SQLParams sqlParams, int limit) {
+        return select(sqlParams) + " FETCH FIRST " + limit + " ROWS ONLY";
+    }
+
 }
@@ -2,13 +2,17 @@ package io.github.balala.dialect;
 
 
 
+import io.github.balala.core.AnimaCache;
+import io.github.balala.core.ColumnMeta;
+import io.github.balala.core.ModelMeta;
 import io.github.balala.core.SQLParams;
 import io.github.balala.exception.AnimaException;
+import io.github.balala.page.PageRow;
 import io.github.balala.utils.AnimaUtils;
+import io.vertx.core.json.JsonArray;
+import io.vertx.ext.sql.ResultSet;
 
-import java.lang.reflect.Field;
-
-import static io.github.balala.utils.AnimaUtils.isIgnore;
+import java.util.List;
 
 
 /**
@@ -56,23 +60,110 @@ public interface Dialect {
         return sql.toString();
     }
 
+    /**
+     * Build a statement asking the query planner how many rows a query returns.
+     *
+     * @param sql select statement
+     * @return estimate sql, null when the database has no usable estimate
+     */
+    default String estimate(String sql) {
+        return null;
+    }
+
+    /**
+     * Read the row estimate from the result of {@link #estimate(String)}.
+     *
+     * @param resultSet estimate result
+     * @return estimated rows
+     */
+    default long estimatedRows(ResultSet resultSet) {
+        return resultSet.getResults().get(0).getLong(0);
+    }
+
     default String insert(SQLParams sqlParams) {
-        StringBuilder sql = new StringBuilder();
+        ModelMeta     modelMeta = AnimaCache.getModelMeta(sqlParams.getModelClass());
+        StringBuilder sql       = new StringBuilder();
         sql.append("INSERT INTO ").append(sqlParams.getTableName());
+        sql.append("(").append(modelMeta.getInsertColumns()).append(")").append(" VALUES (")
+                .append(modelMeta.getInsertPlaceholders()).append(")");
+        return sql.toString();
+    }
 
-        StringBuilder columnNames = new StringBuilder();
-        StringBuilder placeholder = new StringBuilder();
+    /**
+     * Build a multi-row insert, one placeholder group per row.
+     *
+     * @param sqlParams insert params
+     * @param rows      rows in the statement
+     * @return insert sql
+     */
+    default String insertBatch(SQLParams sqlParams, int rows) {
+        ModelMeta     modelMeta = AnimaCache.getModelMeta(sqlParams.getModelClass());
+        StringBuilder sql       = new StringBuilder(insert(sqlParams));
+        for (int i = 1; i < rows; i++) {
+            sql.append(",(").append(modelMeta.getInsertPlaceholders()).append(")");
+        }
+        return sql.toString();
+    }
 
-        for (Field field : sqlParams.getModelClass().getDeclaredFields()) {
-            if (isIgnore(field)) {
+    /**
+     * Max bind parameters of one statement.
+     */
+    default int maxParameters() {
+        return 32767;
+    }
+
+    /**
+     * Max rows of one multi-row insert.
+     */
+    default int maxBatchRows() {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Build a multi-row insert that updates the rows already present, with the
+     * parameter layout of {@link #insertBatch(SQLParams, int)}.
+     *
+     * @param sqlParams       insert params
+     * @param rows            rows in the statement
+     * @param conflictColumns unique columns identifying an existing row
+     * @param updateColumns   columns overwritten on conflict, may be empty
+     * @return upsert sql
+     */
+    default String upsertBatch(SQLParams sqlParams, int rows, List<String> conflictColumns, List<String> updateColumns) {
+        throw new AnimaException(getClass().getSimpleName() + " does not support upsert");
+    }
+
+    /**
+     * Build a multi-row update by primary key, like
+     * "UPDATE t SET a = CASE id WHEN ? THEN COALESCE(?, a) ... ELSE a END, ... WHERE id IN (?, ...)".
+     * Each column binds (pk, value) per row, then the pk list follows; a null value keeps the column.
+     *
+     * @param sqlParams update params
+     * @param rows      rows in the statement
+     * @return update sql
+     */
+    default String updateBatch(SQLParams sqlParams, int rows) {
+        ModelMeta     modelMeta = AnimaCache.getModelMeta(sqlParams.getModelClass());
+        String        pk        = sqlParams.getPkName();
+        StringBuilder sql       = new StringBuilder();
+        sql.append("UPDATE ").append(sqlParams.getTableName()).append(" SET ");
+        for (ColumnMeta column : modelMeta.getColumns()) {
+            if (column == modelMeta.getPkField()) {
                 continue;
             }
-            columnNames.append(",").append(AnimaUtils.toColumnName(field));
-            placeholder.append(",?");
+            String columnName = column.getColumnName();
+            sql.append(columnName).append(" = CASE ").append(pk);
+            for (int i = 0; i < rows; i++) {
+                sql.append(" WHEN ? THEN COALESCE(?, ").append(columnName).append(")");
+            }
+            sql.append(" ELSE ").append(columnName).append(" END, ");
         }
-        sql.append("(").append(columnNames.substring(1)).append(")").append(" VALUES (")
-                .append(placeholder.substring(1)).append(")");
-        return sql.toString();
+        sql.setLength(sql.length() - 2);
+        sql.append(" WHERE ").append(pk).append(" IN (?");
+        for (int i = 1; i < rows; i++) {
+            sql.append(", ?");
+        }
+        return sql.append(")").toString();
     }
 
     default String update(SQLParams sqlParams) {
@@ -85,20 +176,11 @@ public interface Dialect {
             sqlParams.getUpdateColumns().forEach((key, value) -> setSQL.append(key).append(" = ?, "));
         } else {
             if (null != sqlParams.getModel()) {
-                for (Field field : sqlParams.getModelClass().getDeclaredFields()) {
-                    try {
-                        if (isIgnore(field)) {
-                            continue;
-                        }
-                        field.setAccessible(true);
-                        Object value = field.get(sqlParams.getModel());
-                        if (null == value) {
-                            continue;
-                        }
-                        setSQL.append(AnimaUtils.toColumnName(field.getName())).append(" = ?, ");
-                    } catch (IllegalArgumentException | IllegalAccessException e) {
-                        throw new AnimaException("illegal argument or Access:", e);
+                for (ColumnMeta column : AnimaCache.getModelMeta(sqlParams.getModelClass()).getColumns()) {
+                    if (null == column.getValue(sqlParams.getModel())) {
+                        continue;
                     }
+                    setSQL.append(column.getColumnName()).append(" = ?, ");
                 }
             }
         }
@@ -118,20 +200,11 @@ public interface Dialect {
         } else {
             if (null != sqlParams.getModel()) {
                 StringBuilder columnNames = new StringBuilder();
-                for (Field field : sqlParams.getModelClass().getDeclaredFields()) {
-                    if (isIgnore(field)) {
+                for (ColumnMeta column : AnimaCache.getModelMeta(sqlParams.getModelClass()).getColumns()) {
+                    if (null == column.getValue(sqlParams.getModel())) {
                         continue;
                     }
-                    try {
-                        field.setAccessible(true);
-                        Object value = field.get(sqlParams.getModel());
-                        if (null == value) {
-                            continue;
-                        }
-                        columnNames.append(AnimaUtils.toColumnName(field.getName())).append(" = ? and ");
-                    } catch (IllegalArgumentException | IllegalAccessException e) {
-                        throw new AnimaException("illegal argument or Access:", e);
-                    }
+                    columnNames.append(column.getColumnName()).append(" = ? and ");
                 }
                 if (columnNames.length() > 0) {
                     sql.append(" WHERE ").append(columnNames.substring(0, columnNames.length() - 5));
@@ -141,6 +214,37 @@ public interface Dialect {
         return sql.toString();
     }
 
+    /**
+     * Build a paging statement. Dialects overriding {@link #paginateParams(PageRow, JsonArray)}
+     * leave placeholders for the page bounds, so that every page of a query has the same SQL.
+     *
+     * @param sqlParams select params, with the page
+     * @return paging sql
+     */
     String paginate(SQLParams sqlParams);
 
+    /**
+     * Params of the statement built by {@link #paginate(SQLParams)}: the params of the select
+     * with the page bounds bound where the paging statement has their placeholders.
+     *
+     * @param pageRow page param
+     * @param params  params of the select
+     * @return params of the paging statement, null when it inlines the page bounds
+     */
+    default JsonArray paginateParams(PageRow pageRow, JsonArray params) {
+        return null;
+    }
+
+    /**
+     * Build a keyset page: the select, whose condition already holds the seek
+     * predicate, limited to the first rows in its order.
+     *
+     * @param sqlParams select params, with order by
+     * @param limit     max rows
+     * @return seek sql
+     */
+    default String seek(SQLParams sqlParams, int limit) {
+        return select(sqlParams) + " LIMIT " + limit;
+    }
+
 }
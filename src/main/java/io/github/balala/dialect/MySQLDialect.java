@@ -3,6 +3,12 @@ package io.github.balala.dialect;
 
 import io.github.balala.core.SQLParams;
 import io.github.balala.page.PageRow;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.sql.ResultSet;
+
+import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * MySQL dialect
@@ -14,14 +20,47 @@ public class MySQLDialect implements Dialect {
 
     @Override
     public String paginate(SQLParams sqlParams) {
-        PageRow pageRow  = sqlParams.getPageRow();
-        int     limit    = pageRow.getPageSize();
-        int     offset   = limit * (pageRow.getPageNum() - 1);
-        String  limitSQL = " LIMIT " + offset + "," + limit;
-
-        StringBuilder sql = new StringBuilder();
-        sql.append(select(sqlParams)).append(limitSQL);
-        return sql.toString();
+        return select(sqlParams) + " LIMIT ?,?";
+    }
+
+    @Override
+    public JsonArray paginateParams(PageRow pageRow, JsonArray params) {
+        int limit  = pageRow.getPageSize();
+        int offset = limit * (pageRow.getPageNum() - 1);
+        return params.copy().add(offset).add(limit);
+    }
+
+    @Override
+    public int maxParameters() {
+        return 65535;
+    }
+
+    /**
+     * MySQL picks the conflicting unique key itself, the conflict columns only matter
+     * when there is nothing to update.
+     */
+    @Override
+    public String upsertBatch(SQLParams sqlParams, int rows, List<String> conflictColumns, List<String> updateColumns) {
+        StringBuilder sql = new StringBuilder(insertBatch(sqlParams, rows)).append(" ON DUPLICATE KEY UPDATE ");
+        if (updateColumns.isEmpty()) {
+            String column = conflictColumns.get(0);
+            return sql.append(column).append(" = ").append(column).toString();
+        }
+        return sql.append(updateColumns.stream()
+                .map(column -> column + " = VALUES(" + column + ")")
+                .collect(Collectors.joining(", "))).toString();
+    }
+
+    @Override
+    public String estimate(String sql) {
+        return "EXPLAIN " + sql;
+    }
+
+    @Override
+    public long estimatedRows(ResultSet resultSet) {
+        JsonObject plan = resultSet.getRows().get(0);
+        Object     rows = plan.getValue("rows");
+        return null == rows ? 0L : Long.parseLong(rows.toString());
     }
 
 }
@@ -1,7 +1,13 @@
 package io.github.balala.dialect;
 
+import io.github.balala.core.AnimaCache;
+import io.github.balala.core.ModelMeta;
 import io.github.balala.core.SQLParams;
 import io.github.balala.page.PageRow;
+import io.vertx.core.json.JsonArray;
+
+import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Oracle dialect
@@ -13,18 +19,89 @@ public class OracleDialect implements Dialect {
 
     @Override
     public String paginate(SQLParams sqlParams) {
-        PageRow pageRow = sqlParams.getPageRow();
-        int     limit   = pageRow.getPageSize();
-        int     pageNum = pageRow.getPageNum();
-
-        int           start = (pageNum - 1) * limit + 1;
-        int           end   = pageNum * limit;
-        StringBuilder sql   = new StringBuilder();
+        StringBuilder sql = new StringBuilder();
         sql.append("SELECT * FROM ( SELECT row_.*, rownum rownum_ FROM (  ");
         sql.append(select(sqlParams));
-        sql.append(" ) row_ where rownum <= ").append(end).append(") table_alias");
-        sql.append(" WHERE table_alias.rownum_ >= ").append(start);
+        sql.append(" ) row_ where rownum <= ?) table_alias");
+        sql.append(" WHERE table_alias.rownum_ >= ?");
         return sql.toString();
     }
 
+    @Override
+    public JsonArray paginateParams(PageRow pageRow, JsonArray params) {
+        int limit   = pageRow.getPageSize();
+        int pageNum = pageRow.getPageNum();
+        return params.copy().add(pageNum * limit).add((pageNum - 1) * limit + 1);
+    }
+
+    /**
+     * Oracle has no multi-row VALUES, use INSERT ALL.
+     */
+    @Override
+    public String insertBatch(SQLParams sqlParams, int rows) {
+        ModelMeta     modelMeta = AnimaCache.getModelMeta(sqlParams.getModelClass());
+        StringBuilder sql       = new StringBuilder("INSERT ALL");
+        for (int i = 0; i < rows; i++) {
+            sql.append(" INTO ").append(sqlParams.getTableName())
+                    .append("(").append(modelMeta.getInsertColumns()).append(")")
+                    .append(" VALUES (").append(modelMeta.getInsertPlaceholders()).append(")");
+        }
+        return sql.append(" SELECT 1 FROM DUAL").toString();
+    }
+
+    /**
+     * MERGE from a DUAL union holding the rows, with the parameter layout of the insert.
+     */
+    @Override
+    public String upsertBatch(SQLParams sqlParams, int rows, List<String> conflictColumns, List<String> updateColumns) {
+        ModelMeta     modelMeta = AnimaCache.getModelMeta(sqlParams.getModelClass());
+        List<String>  columns   = modelMeta.getColumnNames();
+        StringBuilder sql       = new StringBuilder();
+        sql.append("MERGE INTO ").append(sqlParams.getTableName()).append(" t USING (SELECT ");
+        sql.append(columns.stream().map(column -> "? AS " + column).collect(Collectors.joining(", ")));
+        sql.append(" FROM DUAL");
+        for (int i = 1; i < rows; i++) {
+            sql.append(" UNION ALL SELECT ").append(modelMeta.getInsertPlaceholders()).append(" FROM DUAL");
+        }
+        sql.append(") s ON (").append(mergeOn(conflictColumns)).append(")");
+        return sql.append(mergeActions(columns, updateColumns)).toString();
+    }
+
+    /**
+     * MERGE from a VALUES source, as SQL Server and DB2 take it.
+     */
+    static String mergeValues(SQLParams sqlParams, int rows, List<String> conflictColumns, List<String> updateColumns) {
+        ModelMeta     modelMeta = AnimaCache.getModelMeta(sqlParams.getModelClass());
+        StringBuilder sql       = new StringBuilder();
+        sql.append("MERGE INTO ").append(sqlParams.getTableName()).append(" AS t USING (VALUES ");
+        for (int i = 0; i < rows; i++) {
+            sql.append(i == 0 ? "(" : ", (").append(modelMeta.getInsertPlaceholders()).append(")");
+        }
+        sql.append(") AS s (").append(modelMeta.getInsertColumns()).append(") ON ").append(mergeOn(conflictColumns));
+        return sql.append(mergeActions(modelMeta.getColumnNames(), updateColumns)).toString();
+    }
+
+    static String mergeOn(List<String> conflictColumns) {
+        return conflictColumns.stream()
+                .map(column -> "t." + column + " = s." + column)
+                .collect(Collectors.joining(" AND "));
+    }
+
+    static String mergeActions(List<String> columns, List<String> updateColumns) {
+        StringBuilder sql = new StringBuilder();
+        if (!updateColumns.isEmpty()) {
+            sql.append(" WHEN MATCHED THEN UPDATE SET ").append(updateColumns.stream()
+                    .map(column -> "t." + column + " = s." + column)
+                    .collect(Collectors.joining(", ")));
+        }
+        sql.append(" WHEN NOT MATCHED THEN INSERT (").append(String.join(",", columns)).append(") VALUES (");
+        sql.append(columns.stream().map(column -> "s." + column).collect(Collectors.joining(","))).append(")");
+        return sql.toString();
+    }
+
+    @Override
+    public String seek(SQLParams sqlParams, int limit) {
+        return "SELECT * FROM ( " + select(sqlParams) + " ) WHERE ROWNUM <= " + limit;
+    }
+
 }
@@ -3,6 +3,11 @@ package io.github.balala.dialect;
 
 import io.github.balala.core.SQLParams;
 import io.github.balala.page.PageRow;
+import io.vertx.core.json.JsonArray;
+import io.vertx.ext.sql.ResultSet;
+
+import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * PostgreSQL dialect
@@ -14,13 +19,41 @@ public class PostgreSQLDialect implements Dialect {
 
     @Override
     public String paginate(SQLParams sqlParams) {
-        PageRow pageRow = sqlParams.getPageRow();
-        int limit = pageRow.getPageSize();
+        return select(sqlParams) + " LIMIT ? OFFSET ?";
+    }
+
+    @Override
+    public JsonArray paginateParams(PageRow pageRow, JsonArray params) {
+        int limit  = pageRow.getPageSize();
         int offset = limit * (pageRow.getPageNum() - 1);
-        String limitSQL = " LIMIT " + limit + " OFFSET " + offset;
+        return params.copy().add(limit).add(offset);
+    }
+
+    @Override
+    public String upsertBatch(SQLParams sqlParams, int rows, List<String> conflictColumns, List<String> updateColumns) {
+        StringBuilder sql = new StringBuilder(insertBatch(sqlParams, rows));
+        sql.append(" ON CONFLICT (").append(String.join(",", conflictColumns)).append(")");
+        if (updateColumns.isEmpty()) {
+            return sql.append(" DO NOTHING").toString();
+        }
+        return sql.append(" DO UPDATE SET ").append(updateColumns.stream()
+                .map(column -> column + " = EXCLUDED." + column)
+                .collect(Collectors.joining(", "))).toString();
+    }
+
+    /**
+     * The top plan node's row estimate, which comes from pg_class.reltuples and the
+     * column statistics, so it also covers filtered queries.
+     */
+    @Override
+    public String estimate(String sql) {
+        return "EXPLAIN (FORMAT JSON) " + sql;
+    }
 
-        StringBuilder sql = new StringBuilder();
-        sql.append(select(sqlParams)).append(limitSQL);
-        return sql.toString();
+    @Override
+    public long estimatedRows(ResultSet resultSet) {
+        Object    value = resultSet.getResults().get(0).getValue(0);
+        JsonArray plans = value instanceof JsonArray ? (JsonArray) value : new JsonArray(value.toString());
+        return plans.getJsonObject(0).getJsonObject("Plan").getLong("Plan Rows");
     }
 }
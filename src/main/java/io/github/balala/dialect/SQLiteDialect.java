@@ -1,5 +1,10 @@
 package io.github.balala.dialect;
 
+import io.github.balala.core.SQLParams;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
 /**
  * SQLite dialect
  *
@@ -8,4 +13,35 @@ package io.github.balala.dialect;
  */
 public class SQLiteDialect extends MySQLDialect {
 
+    /**
+     * SQLITE_MAX_VARIABLE_NUMBER of builds before 3.32.
+     */
+    @Override
+    public int maxParameters() {
+        return 999;
+    }
+
+    /**
+     * Upsert syntax of SQLite 3.24+.
+     */
+    @Override
+    public String upsertBatch(SQLParams sqlParams, int rows, List<String> conflictColumns, List<String> updateColumns) {
+        StringBuilder sql = new StringBuilder(insertBatch(sqlParams, rows));
+        sql.append(" ON CONFLICT (").append(String.join(",", conflictColumns)).append(")");
+        if (updateColumns.isEmpty()) {
+            return sql.append(" DO NOTHING").toString();
+        }
+        return sql.append(" DO UPDATE SET ").append(updateColumns.stream()
+                .map(column -> column + " = excluded." + column)
+                .collect(Collectors.joining(", "))).toString();
+    }
+
+    /**
+     * SQLite's EXPLAIN lists bytecode, not rows.
+     */
+    @Override
+    public String estimate(String sql) {
+        return null;
+    }
+
 }
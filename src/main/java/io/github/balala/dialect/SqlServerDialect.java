@@ -3,6 +3,9 @@ package io.github.balala.dialect;
 
 import io.github.balala.core.SQLParams;
 import io.github.balala.page.PageRow;
+import io.vertx.core.json.JsonArray;
+
+import java.util.List;
 
 /**
  * SqlServer dialect
@@ -14,9 +17,21 @@ public class SqlServerDialect implements Dialect {
 
     @Override
     public String paginate(SQLParams sqlParams) {
-        PageRow pageRow = sqlParams.getPageRow();
-        int     limit   = pageRow.getPageSize();
-        int     pageNum = pageRow.getPageNum();
+        StringBuilder sql = new StringBuilder();
+        sql.append("SELECT * FROM ( SELECT row_number() over (ORDER BY tempcolumn) temprownumber, * FROM ( SELECT top (?)")
+                .append(" tempcolumn=0,")
+                .append(select(sqlParams))
+                .append(")vip)mvp where temprownumber>?");
+        return sql.toString();
+    }
+
+    /**
+     * The top bound comes before the params of the select.
+     */
+    @Override
+    public JsonArray paginateParams(PageRow pageRow, JsonArray params) {
+        int limit   = pageRow.getPageSize();
+        int pageNum = pageRow.getPageNum();
 
         int end = pageNum * limit;
         if (end <= 0)
@@ -24,15 +39,33 @@ public class SqlServerDialect implements Dialect {
         int begin = (pageNum - 1) * limit;
         if (begin < 0)
             begin = 0;
+        return new JsonArray().add(end).addAll(params).add(begin);
+    }
 
-        StringBuilder sql = new StringBuilder();
-        sql.append("SELECT * FROM ( SELECT row_number() over (ORDER BY tempcolumn) temprownumber, * FROM ( SELECT top ")
-                .append(end)
-                .append(" tempcolumn=0,")
-                .append(select(sqlParams))
-                .append(")vip)mvp where temprownumber>")
-                .append(begin);
-        return sql.toString();
+    @Override
+    public int maxParameters() {
+        return 2100;
+    }
+
+    /**
+     * A table value constructor takes at most 1000 rows.
+     */
+    @Override
+    public int maxBatchRows() {
+        return 1000;
+    }
+
+    /**
+     * MERGE from a table value constructor holding the rows, with the parameter layout of the insert.
+     */
+    @Override
+    public String upsertBatch(SQLParams sqlParams, int rows, List<String> conflictColumns, List<String> updateColumns) {
+        return OracleDialect.mergeValues(sqlParams, rows, conflictColumns, updateColumns) + ";";
+    }
+
+    @Override
+    public String seek(SQLParams sqlParams, int limit) {
+        return select(sqlParams) + " OFFSET 0 ROWS FETCH NEXT " + limit + " ROWS ONLY";
     }
 
 }
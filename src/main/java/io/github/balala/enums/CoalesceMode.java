@@ -0,0 +1,25 @@
+package io.github.balala.enums;
+
+/**
+ * Whether identical concurrent reads share one database round-trip.
+ *
+ * @author yizmao
+ */
+public enum CoalesceMode {
+
+    /**
+     * Every read runs its own query, the default
+     */
+    NONE,
+
+    /**
+     * Identical reads issued on the same Vert.x context share one query
+     */
+    CONTEXT,
+
+    /**
+     * Identical reads share one query across all contexts
+     */
+    GLOBAL
+
+}
@@ -0,0 +1,30 @@
+package io.github.balala.enums;
+
+/**
+ * How a page query obtains its total row count.
+ *
+ * @author yizmao
+ */
+public enum CountMode {
+
+    /**
+     * Run COUNT(*) over the page query, the default
+     */
+    EXACT,
+
+    /**
+     * Skip the count, the page only knows whether a next page may exist
+     */
+    NONE,
+
+    /**
+     * Reuse the exact count of the same query and params within a TTL
+     */
+    CACHED,
+
+    /**
+     * Use the row estimate of the dialect's query planner, exact when unsupported
+     */
+    ESTIMATE
+
+}
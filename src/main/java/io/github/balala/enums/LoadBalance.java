@@ -0,0 +1,26 @@
+package io.github.balala.enums;
+
+/**
+ * How reads pick a replica.
+ *
+ * @author yizmao
+ */
+public enum LoadBalance {
+
+    /**
+     * Each replica in turn, the default
+     */
+    ROUND_ROBIN,
+
+    /**
+     * The replica with the fewest queries in flight
+     */
+    LEAST_IN_FLIGHT,
+
+    /**
+     * A random replica, weighted by the inverse of its recent latency, which drifts back
+     * toward the mean while the replica is left idle
+     */
+    LATENCY_WEIGHTED
+
+}
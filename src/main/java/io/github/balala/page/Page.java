@@ -114,6 +114,33 @@ public class Page<T> {
         init(total, page, limit);
     }
 
+    /**
+     * A page whose total is unknown, totalRows and totalPages are -1.
+     * It has a next page when it is full.
+     *
+     * @param page  page number
+     * @param limit number each page
+     * @param rows  row list
+     */
+    public Page(int page, int limit, List<T> rows) {
+        this.totalRows = -1L;
+        this.totalPages = -1;
+        this.limit = limit;
+        this.pageNum = Math.max(page, 1);
+        this.rows = rows;
+        this.navPageNums = new int[0];
+        isFirstPage = pageNum == 1;
+        hasPrevPage = pageNum != 1;
+        hasNextPage = rows.size() >= limit;
+        isLastPage = !hasNextPage && pageNum != 1;
+        if (hasNextPage) {
+            nextPage = pageNum + 1;
+        }
+        if (hasPrevPage) {
+            prevPage = pageNum - 1;
+        }
+    }
+
     private void init(long total, int pageNum, int limit) {
         // set basic params
         this.totalRows = total;
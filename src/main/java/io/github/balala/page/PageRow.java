@@ -15,17 +15,63 @@
  */
 package io.github.balala.page;
 
+import io.github.balala.enums.CountMode;
 import lombok.Data;
 
+import java.util.concurrent.TimeUnit;
+
 @Data
 public class PageRow {
 
     private int pageNum;
     private int pageSize;
 
+    /**
+     * @see CountMode
+     */
+    private CountMode countMode = CountMode.EXACT;
+
+    /**
+     * How long a cached total stays valid, in milliseconds
+     */
+    private long countTtl;
+
     public PageRow(int pageNum, int pageSize) {
         this.pageNum = pageNum;
         this.pageSize = pageSize;
     }
 
+    /**
+     * Do not count the total rows.
+     *
+     * @return PageRow
+     */
+    public PageRow skipCount() {
+        this.countMode = CountMode.NONE;
+        return this;
+    }
+
+    /**
+     * Reuse the total of the same query and params for a while.
+     *
+     * @param ttl  time to live
+     * @param unit ttl unit
+     * @return PageRow
+     */
+    public PageRow cacheCount(long ttl, TimeUnit unit) {
+        this.countMode = CountMode.CACHED;
+        this.countTtl = unit.toMillis(ttl);
+        return this;
+    }
+
+    /**
+     * Use the planner's row estimate as total.
+     *
+     * @return PageRow
+     */
+    public PageRow estimateCount() {
+        this.countMode = CountMode.ESTIMATE;
+        return this;
+    }
+
 }
@@ -0,0 +1,53 @@
+package io.github.balala.page;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * A keyset (seek) page: the rows after a cursor, in the query order.
+ * <p>
+ * There is no total count, pass {@link #getCursor()} to the next call to continue.
+ *
+ * @author yizmao
+ */
+@Data
+public class SeekPage<T> {
+
+    /**
+     * row list
+     */
+    private List<T> rows;
+
+    /**
+     * How many rows per page
+     */
+    private int limit;
+
+    /**
+     * has next page
+     */
+    private boolean hasNextPage;
+
+    /**
+     * opaque continuation cursor, null when there is no next page
+     */
+    private String cursor;
+
+    public SeekPage() {
+    }
+
+    public SeekPage(List<T> rows, int limit, String cursor) {
+        this.rows = rows;
+        this.limit = limit;
+        this.cursor = cursor;
+        this.hasNextPage = null != cursor;
+    }
+
+    public <R> SeekPage<R> map(Function<? super T, ? extends R> mapper) {
+        return new SeekPage<>(rows.stream().map(mapper).collect(Collectors.toList()), limit, cursor);
+    }
+
+}
@@ -18,10 +18,10 @@ package io.github.balala.utils;
 
 import io.github.balala.Model;
 import io.github.balala.annotation.Column;
-import io.github.balala.annotation.EnumMapping;
 import io.github.balala.annotation.Ignore;
 import io.github.balala.core.AnimaCache;
-import io.github.balala.exception.AnimaException;
+import io.github.balala.core.ColumnMeta;
+import io.github.balala.core.ModelMeta;
 import io.vertx.core.json.JsonArray;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
@@ -40,6 +40,17 @@ import java.util.List;
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class AnimaUtils {
 
+    /**
+     * Names resolved per lambda class, which is one per call site of a {@code User::getName}
+     * method reference: only the first use of a call site serializes the lambda.
+     */
+    private static final ClassValue<LambdaNames> LAMBDA_NAMES = new ClassValue<LambdaNames>() {
+        @Override
+        protected LambdaNames computeValue(Class<?> type) {
+            return new LambdaNames();
+        }
+    };
+
     public static boolean isNotEmpty(String value) {
         return null != value && !value.isEmpty();
     }
@@ -48,6 +59,10 @@ public class AnimaUtils {
         return null != collection && !collection.isEmpty();
     }
 
+    public static boolean isEmpty(Collection<?> collection) {
+        return null == collection || collection.isEmpty();
+    }
+
     public static boolean isEmpty(String value) {
         return null == value || value.isEmpty();
     }
@@ -103,46 +118,26 @@ public class AnimaUtils {
 
     public static <T extends Model> JsonArray toColumnValues(T model, boolean allowNull) {
         JsonArray columnValueList = new JsonArray();
-        for (Field field : model.getClass().getDeclaredFields()) {
-            if (isIgnore(field)) {
-                continue;
-            }
-            field.setAccessible(true);
-            try {
-                Object value = field.get(model);
-                if (null != value) {
-                    if (value instanceof Enum) {
-                        EnumMapping enumMapping = field.getAnnotation(EnumMapping.class);
-                        if (null == enumMapping) {
-                            columnValueList.add(value.toString());
-                        } else {
-                            if (enumMapping.value().equals(EnumMapping.TO_STRING)) {
-                                columnValueList.add(value.toString());
-                            }
-                            if (enumMapping.value().equals(EnumMapping.ORDINAL)) {
-                                columnValueList.add(((Enum) value).ordinal());
-                            }
-                        }
-                    } else {
-                        columnValueList.add(value);
-                    }
-                } else if (allowNull) {
-                    columnValueList.addNull();
-                }
-            } catch (IllegalArgumentException | IllegalAccessException e) {
-                throw new AnimaException("illegal argument or Access:", e);
+        for (ColumnMeta column : AnimaCache.getModelMeta(model.getClass()).getColumns()) {
+            Object value = column.getValue(model);
+            if (null != value) {
+                columnValueList.add(column.toColumnValue(value));
+            } else if (allowNull) {
+                columnValueList.addNull();
             }
         }
         return columnValueList;
     }
 
     public static <T extends Model> String buildColumns(List<String> excludedColumns, Class<T> modelClass) {
-        StringBuilder sql            = new StringBuilder();
-        Field[]       declaredFields = modelClass.getDeclaredFields();
-        for (Field field : declaredFields) {
-            String columnName = toColumnName(field.getName());
-            if (!isIgnore(field) && !excludedColumns.contains(columnName)) {
-                sql.append(columnName).append(',');
+        ModelMeta modelMeta = AnimaCache.getModelMeta(modelClass);
+        if (isEmpty(excludedColumns)) {
+            return modelMeta.getSelectColumns();
+        }
+        StringBuilder sql = new StringBuilder();
+        for (ColumnMeta column : modelMeta.getColumns()) {
+            if (!excludedColumns.contains(column.getColumnName())) {
+                sql.append(column.getColumnName()).append(',');
             }
         }
         if (sql.length() > 0) {
@@ -158,9 +153,12 @@ public class AnimaUtils {
     }
 
     public static Object getFieldValue(Field field, Object target) {
+        ColumnMeta column = AnimaCache.getModelMeta(target.getClass()).getColumnByField(field.getName());
+        if (null != column) {
+            return column.getValue(target);
+        }
         try {
-            field.setAccessible(true);
-            return field.get(target);
+            return AnimaCache.getField(target.getClass(), field.getName()).get(target);
         } catch (IllegalAccessException e) {
             e.printStackTrace();
         }
@@ -168,6 +166,11 @@ public class AnimaUtils {
     }
 
     public static void setFieldValue(String fieldName, Object target, Object value) {
+        ColumnMeta column = AnimaCache.getModelMeta(target.getClass()).getColumnByField(fieldName);
+        if (null != column) {
+            column.setValue(target, value);
+            return;
+        }
         try {
             Field field = AnimaCache.getField(target.getClass(), fieldName);
             field.set(target, value);
@@ -177,26 +180,32 @@ public class AnimaUtils {
     }
 
     public static String getLambdaColumnName(Serializable lambda) {
-        for (Class<?> cl = lambda.getClass(); cl != null; cl = cl.getSuperclass()) {
-            try {
-                Method m = cl.getDeclaredMethod("writeReplace");
-                m.setAccessible(true);
-                Object replacement = m.invoke(lambda);
-                if (!(replacement instanceof SerializedLambda)) {
-                    break; // custom interface implementation
-                }
-                SerializedLambda serializedLambda = (SerializedLambda) replacement;
-                return AnimaCache.getLambdaColumnName(serializedLambda);
-            } catch (NoSuchMethodException e) {
-                // do nothing
-            } catch (IllegalAccessException | InvocationTargetException e) {
-                break;
+        LambdaNames names      = LAMBDA_NAMES.get(lambda.getClass());
+        String      columnName = names.columnName;
+        if (null == columnName) {
+            SerializedLambda serializedLambda = serializedLambda(lambda);
+            if (null == serializedLambda) {
+                return null;
             }
+            columnName = names.columnName = AnimaCache.getLambdaColumnName(serializedLambda);
         }
-        return null;
+        return columnName;
     }
 
     public static String getLambdaFieldName(Serializable lambda) {
+        LambdaNames names     = LAMBDA_NAMES.get(lambda.getClass());
+        String      fieldName = names.fieldName;
+        if (null == fieldName) {
+            SerializedLambda serializedLambda = serializedLambda(lambda);
+            if (null == serializedLambda) {
+                return null;
+            }
+            fieldName = names.fieldName = AnimaCache.getLambdaFieldName(serializedLambda);
+        }
+        return fieldName;
+    }
+
+    private static SerializedLambda serializedLambda(Serializable lambda) {
         for (Class<?> cl = lambda.getClass(); cl != null; cl = cl.getSuperclass()) {
             try {
                 Method m = cl.getDeclaredMethod("writeReplace");
@@ -205,8 +214,7 @@ public class AnimaUtils {
                 if (!(replacement instanceof SerializedLambda)) {
                     break; // custom interface implementation
                 }
-                SerializedLambda serializedLambda = (SerializedLambda) replacement;
-                return AnimaCache.getLambdaFieldName(serializedLambda);
+                return (SerializedLambda) replacement;
             } catch (NoSuchMethodException e) {
                 // do nothing
             } catch (IllegalAccessException | InvocationTargetException e) {
@@ -216,6 +224,12 @@ public class AnimaUtils {
         return null;
     }
 
+    private static final class LambdaNames {
+
+        private volatile String columnName;
+        private volatile String fieldName;
+    }
+
     public static String methodToFieldName(String methodName) {
         return capitalize(methodName.replace("get", ""));
     }
@@ -225,18 +239,15 @@ public class AnimaUtils {
     }
 
     public static <S extends Model> Object getAndRemovePrimaryKey(S model) {
-        try {
-            String fieldName = AnimaCache.getPKField(model.getClass());
-            Field  field     = model.getClass().getDeclaredField(fieldName);
-            field.setAccessible(true);
-            Object value = field.get(model);
-            if (null != value) {
-                field.set(model, null);
-            }
-            return value;
-        } catch (NoSuchFieldException | IllegalAccessException e) {
+        ColumnMeta pkField = AnimaCache.getModelMeta(model.getClass()).getPkField();
+        if (null == pkField) {
+            return null;
         }
-        return null;
+        Object value = pkField.getValue(model);
+        if (null != value) {
+            pkField.setValue(model, null);
+        }
+        return value;
     }
 
     public static <T> T[] toArray(List<T> list) {
@@ -0,0 +1,122 @@
+import io.github.balala.Balala;
+import io.github.balala.core.BatchResult;
+import io.github.balala.core.SQLParams;
+import io.github.balala.dialect.MySQLDialect;
+import io.github.balala.exception.AnimaException;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.json.JsonArray;
+import io.vertx.ext.sql.SQLClient;
+import io.vertx.ext.sql.SQLConnection;
+import io.vertx.ext.sql.UpdateResult;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A chunk that cannot be built fails the batch instead of throwing out of it, against a client
+ * whose connection records the statements, no database needed.
+ *
+ * @author yizmao
+ */
+public class BatchStatementTest {
+
+    private static final List<String> STATEMENTS = new ArrayList<>();
+
+    private static Balala balala;
+
+    @BeforeClass
+    public static void before() {
+        SQLConnection connection = (SQLConnection) Proxy.newProxyInstance(BatchStatementTest.class.getClassLoader(), new Class[]{SQLConnection.class},
+                (proxy, method, args) -> {
+                    if ("updateWithParams".equals(method.getName())) {
+                        STATEMENTS.add((String) args[0]);
+                        ((Handler<Future<UpdateResult>>) args[2]).handle(Future.succeededFuture(new UpdateResult(2, new JsonArray())));
+                    }
+                    return proxy;
+                });
+        SQLClient client = (SQLClient) Proxy.newProxyInstance(BatchStatementTest.class.getClassLoader(), new Class[]{SQLClient.class},
+                (proxy, method, args) -> {
+                    if ("getConnection".equals(method.getName())) {
+                        ((Handler<Future<SQLConnection>>) args[0]).handle(Future.succeededFuture(connection));
+                    }
+                    return proxy;
+                });
+        balala = Balala.open(client);
+        balala.setBatchSize(2);
+        balala.setBatchConcurrency(1);
+    }
+
+    @Before
+    public void reset() {
+        STATEMENTS.clear();
+    }
+
+    @Test
+    public void firstChunkThatCannotBeBuiltFailsTheBatch() {
+        balala.setDialect(new UpsertUnsupportedDialect());
+        Future<BatchResult> result = Balala.upsertBatch(users(3), Collections.singletonList("username"), Collections.emptyList());
+        assertTrue(result.failed());
+        assertTrue(result.cause() instanceof AnimaException);
+        assertEquals(0, STATEMENTS.size());
+    }
+
+    @Test
+    public void laterChunkThatCannotBeBuiltFailsTheBatch() {
+        balala.setDialect(new SingleRowUnsupportedDialect());
+        Future<BatchResult> result = Balala.upsertBatch(users(3), Collections.singletonList("username"), Collections.emptyList());
+        assertTrue(result.failed());
+        assertTrue(result.cause() instanceof AnimaException);
+        assertEquals(1, STATEMENTS.size());
+    }
+
+    @Test
+    public void everyChunkIsSent() {
+        balala.setDialect(new MySQLDialect());
+        Future<BatchResult> result = Balala.upsertBatch(users(3), Collections.singletonList("username"), Collections.emptyList());
+        assertTrue(result.succeeded());
+        assertEquals(2, STATEMENTS.size());
+    }
+
+    private static List<User> users(int count) {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            users.add(new User("user" + i, "password" + i));
+        }
+        return users;
+    }
+
+    /**
+     * A dialect without upsert.
+     */
+    private static class UpsertUnsupportedDialect extends MySQLDialect {
+
+        @Override
+        public String upsertBatch(SQLParams sqlParams, int rows, List<String> conflictColumns, List<String> updateColumns) {
+            throw new AnimaException("upsert");
+        }
+    }
+
+    /**
+     * A dialect failing on the last, shorter chunk only.
+     */
+    private static class SingleRowUnsupportedDialect extends MySQLDialect {
+
+        @Override
+        public String upsertBatch(SQLParams sqlParams, int rows, List<String> conflictColumns, List<String> updateColumns) {
+            if (rows == 1) {
+                throw new AnimaException("single row upsert");
+            }
+            return super.upsertBatch(sqlParams, rows, conflictColumns, updateColumns);
+        }
+    }
+
+}
@@ -0,0 +1,64 @@
+import io.github.balala.core.accessor.LambdaAccessorFactory;
+import io.github.balala.core.accessor.PropertyAccessor;
+import io.github.balala.core.accessor.PropertyAccessorFactory;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Accessors read and write the raw field, whatever its getter and setter do.
+ *
+ * @author yizmao
+ */
+public class PropertyAccessorTest {
+
+    private final PropertyAccessorFactory factory = new LambdaAccessorFactory();
+
+    @Test
+    public void getterLogicIsBypassed() throws Exception {
+        PropertyAccessor password = factory.create(Account.class.getDeclaredField("password"));
+        Account          account  = new Account();
+        account.password = "secret";
+        assertEquals("******", account.getPassword());
+        assertEquals("secret", password.get(account));
+    }
+
+    @Test
+    public void setterLogicIsBypassed() throws Exception {
+        PropertyAccessor password = factory.create(Account.class.getDeclaredField("password"));
+        Account          account  = new Account();
+        password.set(account, "  secret  ");
+        assertEquals("  secret  ", account.password);
+    }
+
+    @Test
+    public void primitiveFieldsAreBoxed() throws Exception {
+        PropertyAccessor age     = factory.create(Account.class.getDeclaredField("age"));
+        Account          account = new Account();
+        age.set(account, 42);
+        assertEquals(42, age.get(account));
+    }
+
+    public static class Account {
+
+        private String password;
+        private int    age;
+
+        public String getPassword() {
+            return null == password ? null : "******";
+        }
+
+        public void setPassword(String password) {
+            this.password = password.trim();
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public void setAge(int age) {
+            this.age = age;
+        }
+    }
+
+}
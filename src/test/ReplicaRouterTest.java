@@ -0,0 +1,101 @@
+import io.github.balala.core.ReplicaRouter;
+import io.github.balala.enums.LoadBalance;
+import io.vertx.core.Future;
+import io.vertx.ext.sql.SQLClient;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Latency-weighted routing over two replica clients, one answering at once and one after a
+ * pause, no database needed.
+ *
+ * @author yizmao
+ */
+public class ReplicaRouterTest {
+
+    private static final long SLOW_MILLIS = 50;
+
+    private volatile boolean slowing;
+
+    private ReplicaRouter router;
+    private SQLClient     primary;
+    private SQLClient     fast;
+    private SQLClient     slow;
+
+    @Before
+    public void before() {
+        router = new ReplicaRouter();
+        primary = client();
+        fast = client();
+        slow = client();
+        router.setReplicas(Arrays.asList(fast, slow));
+    }
+
+    @Test
+    public void idleSlowReplicaDriftsBackTowardTheMean() throws Exception {
+        double measured = this.primeSlowReplica();
+        router.setLoadBalance(LoadBalance.LATENCY_WEIGHTED);
+        router.setLatencyDecayMillis(20);
+        Thread.sleep(200);
+        this.read();
+        assertTrue(replica(slow).getLatencyMillis() + " vs " + measured, replica(slow).getLatencyMillis() < measured * 0.6);
+    }
+
+    @Test
+    public void noDecayKeepsTheLastMeasure() throws Exception {
+        double measured = this.primeSlowReplica();
+        router.setLoadBalance(LoadBalance.LATENCY_WEIGHTED);
+        router.setLatencyDecayMillis(0);
+        Thread.sleep(100);
+        for (int i = 0; i < 10; i++) {
+            this.read();
+        }
+        assertEquals(measured, replica(slow).getLatencyMillis(), 0.001);
+    }
+
+    /**
+     * Measure both replicas in turn until the slow one is well above the fast one, which
+     * then answers at once too.
+     *
+     * @return latency of the slow replica
+     */
+    private double primeSlowReplica() {
+        router.setLoadBalance(LoadBalance.ROUND_ROBIN);
+        router.setLatencyDecayMillis(0);
+        slowing = true;
+        while (replica(slow).getLatencyMillis() < SLOW_MILLIS / 2) {
+            this.read();
+        }
+        slowing = false;
+        return replica(slow).getLatencyMillis();
+    }
+
+    private void read() {
+        router.query(primary, null, client -> {
+            if (slowing && client == slow) {
+                try {
+                    Thread.sleep(SLOW_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return Future.succeededFuture();
+        });
+    }
+
+    private ReplicaRouter.Replica replica(SQLClient client) {
+        return router.getReplicas().stream().filter(replica -> replica.getClient() == client).findFirst().orElse(null);
+    }
+
+    private static SQLClient client() {
+        return (SQLClient) Proxy.newProxyInstance(ReplicaRouterTest.class.getClassLoader(), new Class[]{SQLClient.class},
+                (proxy, method, args) -> proxy);
+    }
+
+}
@@ -0,0 +1,211 @@
+import io.github.balala.Balala;
+import io.github.balala.core.RowStream;
+import io.github.balala.core.SQLExecutor;
+import io.github.balala.exception.AnimaException;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.sql.SQLClient;
+import io.vertx.ext.sql.SQLConnection;
+import io.vertx.ext.sql.SQLRowStream;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Row streams borrow their connection through the executor, under its permits, queue and
+ * deadlines, against a client whose connections stream no rows until told to end.
+ *
+ * @author yizmao
+ */
+public class RowStreamTest {
+
+    private static final AtomicInteger       CLOSED = new AtomicInteger();
+    private static final List<Handler<Void>> ENDS   = new CopyOnWriteArrayList<>();
+
+    private static volatile long connectDelay;
+
+    private static Vertx       vertx;
+    private static SQLExecutor executor;
+
+    @BeforeClass
+    public static void before() {
+        vertx = Vertx.vertx();
+        SQLClient client = (SQLClient) Proxy.newProxyInstance(RowStreamTest.class.getClassLoader(), new Class[]{SQLClient.class},
+                (proxy, method, args) -> {
+                    if ("getConnection".equals(method.getName())) {
+                        Handler<AsyncResult<SQLConnection>> handler = (Handler<AsyncResult<SQLConnection>>) args[0];
+                        if (connectDelay > 0) {
+                            vertx.setTimer(connectDelay, id -> handler.handle(Future.succeededFuture(connection())));
+                        } else {
+                            handler.handle(Future.succeededFuture(connection()));
+                        }
+                    }
+                    return proxy;
+                });
+        executor = Balala.open(client).getExecutor();
+    }
+
+    @AfterClass
+    public static void after() {
+        vertx.close();
+    }
+
+    @Before
+    public void reset() {
+        CLOSED.set(0);
+        ENDS.clear();
+        connectDelay = 0;
+        executor.setMaxInFlight(1);
+        executor.setMaxQueued(0);
+    }
+
+    @Test
+    public void streamHoldsAPermitUntilItEnds() throws Exception {
+        RowStream<JsonObject> stream = await(Balala.select().from(User.class).stream());
+        assertEquals(1, executor.stats().getInFlight());
+        CompletableFuture<Void> ended = new CompletableFuture<>();
+        stream.endHandler(v -> ended.complete(null));
+        stream.handler(row -> {});
+        vertx.runOnContext(v -> ENDS.get(0).handle(null));
+        ended.get(5, TimeUnit.SECONDS);
+        assertEquals(0, executor.stats().getInFlight());
+        assertEquals(1, CLOSED.get());
+    }
+
+    @Test
+    public void closingTheStreamGivesTheConnectionBack() throws Exception {
+        RowStream<JsonObject> stream = await(Balala.select().from(User.class).stream());
+        stream.close();
+        stream.close();
+        assertEquals(0, executor.stats().getInFlight());
+        assertEquals(1, CLOSED.get());
+    }
+
+    @Test
+    public void streamIsRejectedWhenThePermitsAndTheQueueAreFull() throws Exception {
+        long                  rejected = executor.stats().getRejected();
+        RowStream<JsonObject> first    = await(Balala.select().from(User.class).stream());
+        Throwable             cause    = failure(Balala.select().from(User.class).stream());
+        assertTrue(cause instanceof AnimaException);
+        assertEquals(rejected + 1, executor.stats().getRejected());
+        first.close();
+        assertEquals(0, executor.stats().getInFlight());
+    }
+
+    @Test
+    public void queuedStreamFailsPastItsDeadline() throws Exception {
+        executor.setMaxQueued(1);
+        long                  timedOut = executor.stats().getTimedOut();
+        RowStream<JsonObject> first    = await(Balala.select().from(User.class).stream());
+        Throwable             cause    = failure(vertx, () -> Balala.select().from(User.class).timeout(Duration.ofMillis(50)).stream());
+        assertTrue(cause instanceof AnimaException);
+        eventually(() -> executor.stats().getTimedOut() == timedOut + 1);
+        assertEquals(0, executor.stats().getQueued());
+        first.close();
+        assertEquals(0, executor.stats().getInFlight());
+    }
+
+    @Test
+    public void connectionArrivingPastTheDeadlineIsGivenBack() throws Exception {
+        connectDelay = 200;
+        long      timedOut = executor.stats().getTimedOut();
+        Throwable cause    = failure(vertx, () -> Balala.select().from(User.class).timeout(Duration.ofMillis(50)).stream());
+        assertTrue(cause instanceof AnimaException);
+        eventually(() -> executor.stats().getTimedOut() == timedOut + 1);
+        assertEquals(1, executor.stats().getInFlight());
+        eventually(() -> executor.stats().getInFlight() == 0);
+        assertEquals(1, CLOSED.get());
+    }
+
+    private static void eventually(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    private static <R> R await(Future<R> future) throws Exception {
+        CompletableFuture<R> done = new CompletableFuture<>();
+        future.setHandler(res -> {
+            if (res.succeeded()) {
+                done.complete(res.result());
+            } else {
+                done.completeExceptionally(res.cause());
+            }
+        });
+        return done.get(5, TimeUnit.SECONDS);
+    }
+
+    private static Throwable failure(Future<?> future) throws Exception {
+        CompletableFuture<Throwable> done = new CompletableFuture<>();
+        future.setHandler(res -> done.complete(res.cause()));
+        return done.get(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Issue the statement on a context, for the executor to arm its deadline.
+     */
+    private static Throwable failure(Vertx vertx, Supplier<Future<?>> statement) throws Exception {
+        CompletableFuture<Throwable> done = new CompletableFuture<>();
+        vertx.runOnContext(v -> statement.get().setHandler(res -> done.complete(res.cause())));
+        return done.get(5, TimeUnit.SECONDS);
+    }
+
+    private static SQLConnection connection() {
+        return (SQLConnection) Proxy.newProxyInstance(RowStreamTest.class.getClassLoader(), new Class[]{SQLConnection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "queryStreamWithParams":
+                            ((Handler<AsyncResult<SQLRowStream>>) args[2]).handle(Future.succeededFuture(rowStream()));
+                            break;
+                        case "close":
+                            CLOSED.incrementAndGet();
+                            break;
+                        default:
+                            break;
+                    }
+                    return proxy;
+                });
+    }
+
+    private static SQLRowStream rowStream() {
+        return (SQLRowStream) Proxy.newProxyInstance(RowStreamTest.class.getClassLoader(), new Class[]{SQLRowStream.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "columns":
+                            return Collections.singletonList("id");
+                        case "endHandler":
+                            ENDS.add((Handler<Void>) args[0]);
+                            break;
+                        case "close":
+                            if (null != args) {
+                                ((Handler<AsyncResult<Void>>) args[0]).handle(Future.succeededFuture());
+                            }
+                            break;
+                        default:
+                            break;
+                    }
+                    return proxy;
+                });
+    }
+
+}
@@ -0,0 +1,221 @@
+import io.github.balala.Balala;
+import io.github.balala.Model;
+import io.github.balala.annotation.Sharded;
+import io.github.balala.annotation.Table;
+import io.github.balala.core.shard.HashShardStrategy;
+import io.github.balala.core.shard.Sharding;
+import io.github.balala.exception.AnimaException;
+import io.github.balala.page.Page;
+import io.github.balala.page.PageRow;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.sql.ResultSet;
+import io.vertx.ext.sql.SQLClient;
+import io.vertx.ext.sql.SQLConnection;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Routing and merging of a model sharded over two instances, against clients whose
+ * connections record the statements and answer with the rows of their shard, no database needed.
+ *
+ * @author yizmao
+ */
+public class ShardingTest {
+
+    private static final List<String> STATEMENTS = new ArrayList<>();
+
+    @BeforeClass
+    public static void before() {
+        Balala.open(shard("default", Collections.emptyList(), 0, 0));
+        Balala.open("orders0", shard("orders0", Arrays.asList(1, 3, 5, 7), 4, 100));
+        Balala.open("orders1", shard("orders1", Arrays.asList(2, 4, 6, 8), 4, 50));
+    }
+
+    @Before
+    public void reset() {
+        STATEMENTS.clear();
+    }
+
+    @Test
+    public void numbersOfAnyTypeMergeByValue() {
+        ResultSet merged = gather(" amount",
+                rows(row(1, 10L), row(2, 2.5)),
+                rows(row(3, 3), row(4, 7.25f)));
+        assertEquals(Arrays.asList(2, 3, 4, 1), ids(merged));
+    }
+
+    @Test
+    public void numericAndTemporalKeysMergeColumnByColumn() {
+        ResultSet merged = gather(" created DESC, amount",
+                rows(row(1, 5, "2018-06-11T09:00:00"), row(2, 1, "2018-06-12T09:00:00")),
+                rows(row(3, 2, "2018-06-11T09:00:00"), row(4, 9, "2018-06-11T13:27:00")));
+        assertEquals(Arrays.asList(2, 4, 3, 1), ids(merged));
+    }
+
+    @Test
+    public void nullsComeFirstAscendingAndLastDescending() {
+        ResultSet ascending = gather(" amount",
+                rows(row(1, 5), row(2, null)),
+                rows(row(3, 1), row(4, null)));
+        assertEquals(Arrays.asList(2, 4, 3, 1), ids(ascending));
+        ResultSet descending = gather(" amount DESC",
+                rows(row(1, 5), row(2, null)),
+                rows(row(3, 1), row(4, null)));
+        assertEquals(Arrays.asList(1, 3, 2, 4), ids(descending));
+    }
+
+    @Test
+    public void columnMixingNumbersAndTimesCannotMerge() {
+        Future<ResultSet> merged = Sharding.gather(Arrays.asList(
+                Future.succeededFuture(rows(row(1, 5))),
+                Future.succeededFuture(rows(row(2, "2018-06-11")))), " amount");
+        assertTrue(merged.failed());
+        assertTrue(merged.cause() instanceof AnimaException);
+    }
+
+    @Test
+    public void textColumnCannotMerge() {
+        Future<ResultSet> merged = Sharding.gather(Arrays.asList(
+                Future.succeededFuture(rows(row(1, "jack"))),
+                Future.succeededFuture(rows(row(2, "rose")))), " amount");
+        assertTrue(merged.failed());
+        assertTrue(merged.cause() instanceof AnimaException);
+    }
+
+    @Test
+    public void pageSlicesTheFirstRowsOfEveryShard() {
+        Future<Page<JsonObject>> result = Balala.select().from(Order.class).order("id").page(new PageRow(2, 3));
+        assertTrue(String.valueOf(result.cause()), result.succeeded());
+        Page<JsonObject> page = result.result();
+        assertEquals(8, page.getTotalRows());
+        assertEquals(Arrays.asList(4, 5, 6), page.getRows().stream().map(row -> row.getInteger("id")).collect(Collectors.toList()));
+        List<String> rowsQueries = statements("LIMIT ?,?");
+        assertEquals(2, rowsQueries.size());
+        for (String statement : rowsQueries) {
+            assertTrue(statement, statement.endsWith("[0,6]"));
+        }
+    }
+
+    @Test
+    public void estimateSumsTheEstimateOfEveryShard() {
+        Future<Page<JsonObject>> result = Balala.select().from(Order.class).order("id").page(new PageRow(1, 2).estimateCount());
+        assertTrue(String.valueOf(result.cause()), result.succeeded());
+        assertEquals(150, result.result().getTotalRows());
+        assertEquals(2, statements("EXPLAIN").size());
+    }
+
+    @Test
+    public void integerKeysRouteLikeTheirTextForm() {
+        HashShardStrategy strategy = new HashShardStrategy();
+        List<String>      shards   = Arrays.asList("a", "b", "c");
+        for (Object key : Arrays.asList(5, -7, 1234567890123L, 0)) {
+            assertEquals(String.valueOf(key), strategy.shard(key, shards), strategy.shard(String.valueOf(key), shards));
+        }
+        assertEquals(strategy.shard("jack".hashCode(), shards), strategy.shard("jack", shards));
+        assertEquals(strategy.shard("99999999999999999999".hashCode(), shards), strategy.shard("99999999999999999999", shards));
+        assertEquals(strategy.shard("5.0".hashCode(), shards), strategy.shard("5.0", shards));
+    }
+
+    @Test
+    public void conditionOnTheKeyRoutesTextAndNumbersAlike() {
+        assertSame(Sharding.shard(Order.class, 10), Sharding.shard(Order.class, "10"));
+        Balala.select().from(Order.class).where("id", 10).all();
+        Balala.select().from(Order.class).where("id", "10").all();
+        List<String> statements = statements("WHERE id = ?");
+        assertEquals(2, statements.size());
+        assertEquals(shardOf(statements.get(0)), shardOf(statements.get(1)));
+    }
+
+    @Table(name = "orders")
+    @Sharded(shards = {"orders0", "orders1"})
+    public static class Order extends Model {
+
+        private Integer id;
+        private Integer amount;
+    }
+
+    private static ResultSet gather(String orderBy, ResultSet... parts) {
+        List<Future<ResultSet>> futures = new ArrayList<>();
+        for (ResultSet part : parts) {
+            futures.add(Future.succeededFuture(part));
+        }
+        Future<ResultSet> merged = Sharding.gather(futures, orderBy);
+        assertTrue(String.valueOf(merged.cause()), merged.succeeded());
+        return merged.result();
+    }
+
+    private static ResultSet rows(JsonArray... rows) {
+        return new ResultSet(Arrays.asList("id", "amount", "created"), Arrays.asList(rows), null);
+    }
+
+    private static JsonArray row(Object... values) {
+        JsonArray row = new JsonArray();
+        for (Object value : values) {
+            if (null == value) {
+                row.addNull();
+            } else {
+                row.add(value);
+            }
+        }
+        return row;
+    }
+
+    private static List<Integer> ids(ResultSet resultSet) {
+        return resultSet.getResults().stream().map(row -> row.getInteger(0)).collect(Collectors.toList());
+    }
+
+    private static List<String> statements(String fragment) {
+        return STATEMENTS.stream().filter(statement -> statement.contains(fragment)).collect(Collectors.toList());
+    }
+
+    private static String shardOf(String statement) {
+        return statement.substring(0, statement.indexOf(' '));
+    }
+
+    /**
+     * A shard holding the given ids, counting as many rows and estimating the given number.
+     */
+    private static SQLClient shard(String name, List<Integer> ids, long count, long estimate) {
+        SQLConnection connection = (SQLConnection) Proxy.newProxyInstance(ShardingTest.class.getClassLoader(), new Class[]{SQLConnection.class},
+                (proxy, method, args) -> {
+                    if ("queryWithParams".equals(method.getName())) {
+                        String sql = (String) args[0];
+                        STATEMENTS.add(name + " " + sql + " " + args[1]);
+                        ResultSet resultSet;
+                        if (sql.startsWith("SELECT COUNT(*)")) {
+                            resultSet = new ResultSet(Collections.singletonList("count"), Collections.singletonList(new JsonArray().add(count)), null);
+                        } else if (sql.startsWith("EXPLAIN")) {
+                            resultSet = new ResultSet(Collections.singletonList("rows"), Collections.singletonList(new JsonArray().add(estimate)), null);
+                        } else {
+                            List<JsonArray> rows = ids.stream().map(id -> new JsonArray().add(id).add(id * 10)).collect(Collectors.toList());
+                            resultSet = new ResultSet(Arrays.asList("id", "amount"), rows, null);
+                        }
+                        ((Handler<Future<ResultSet>>) args[2]).handle(Future.succeededFuture(resultSet));
+                    }
+                    return proxy;
+                });
+        return (SQLClient) Proxy.newProxyInstance(ShardingTest.class.getClassLoader(), new Class[]{SQLClient.class},
+                (proxy, method, args) -> {
+                    if ("getConnection".equals(method.getName())) {
+                        ((Handler<Future<SQLConnection>>) args[0]).handle(Future.succeededFuture(connection));
+                    }
+                    return proxy;
+                });
+    }
+
+}
@@ -0,0 +1,82 @@
+import io.github.balala.Balala;
+import io.github.balala.core.SingleFlight;
+import io.github.balala.enums.CoalesceMode;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.sql.ResultSet;
+import io.vertx.ext.sql.SQLClient;
+import io.vertx.ext.sql.SQLConnection;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * A read that throws before it is sent leaves no flight behind, against a client that throws
+ * once and then answers, no database needed.
+ *
+ * @author yizmao
+ */
+public class SingleFlightTest {
+
+    private static final AtomicInteger   QUERIES = new AtomicInteger();
+    private static final List<Future<?>> JOINED  = new ArrayList<>();
+
+    private static volatile boolean broken;
+
+    @BeforeClass
+    public static void before() {
+        SQLConnection connection = (SQLConnection) Proxy.newProxyInstance(SingleFlightTest.class.getClassLoader(), new Class[]{SQLConnection.class},
+                (proxy, method, args) -> {
+                    if ("queryWithParams".equals(method.getName())) {
+                        QUERIES.incrementAndGet();
+                        ((Handler<Future<ResultSet>>) args[2]).handle(Future.succeededFuture(
+                                new ResultSet(Collections.singletonList("id"), Collections.singletonList(new JsonArray().add(1)), null)));
+                    }
+                    return proxy;
+                });
+        SQLClient client = (SQLClient) Proxy.newProxyInstance(SingleFlightTest.class.getClassLoader(), new Class[]{SQLClient.class},
+                (proxy, method, args) -> {
+                    if ("getConnection".equals(method.getName())) {
+                        if (broken) {
+                            broken = false;
+                            JOINED.add(Balala.select().from(User.class).where("id", 1).all());
+                            throw new IllegalStateException("pool closed");
+                        }
+                        ((Handler<Future<SQLConnection>>) args[0]).handle(Future.succeededFuture(connection));
+                    }
+                    return proxy;
+                });
+        Balala.open(client).setCoalesceMode(CoalesceMode.GLOBAL);
+    }
+
+    @Test
+    public void readThrowingBeforeItIsSentFailsItsFlight() {
+        broken = true;
+        try {
+            Balala.select().from(User.class).where("id", 1).all();
+            fail("the read should throw to its caller");
+        } catch (IllegalStateException e) {
+            assertEquals("pool closed", e.getMessage());
+        }
+        assertEquals(1, JOINED.size());
+        assertTrue(JOINED.get(0).failed());
+        assertEquals(0, SingleFlight.stats().getInFlight());
+
+        Future<List<JsonObject>> again = Balala.select().from(User.class).where("id", 1).all();
+        assertTrue(again.succeeded());
+        assertEquals(1, again.result().size());
+        assertEquals(1, QUERIES.get());
+    }
+
+}
@@ -0,0 +1,43 @@
+import io.github.balala.core.metrics.SlowQueryLog;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Statements of one shape share a fingerprint, whatever the length of their lists.
+ *
+ * @author yizmao
+ */
+public class SlowQueryLogTest {
+
+    @Test
+    public void inListsOfAnyLengthShareAFingerprint() {
+        String expected = "SELECT * FROM users WHERE id IN (?+)";
+        assertEquals(expected, SlowQueryLog.fingerprint("SELECT * FROM users WHERE id IN (?)"));
+        assertEquals(expected, SlowQueryLog.fingerprint("SELECT * FROM users WHERE id IN ( ? )"));
+        assertEquals(expected, SlowQueryLog.fingerprint("SELECT * FROM users WHERE id IN (?, ?)"));
+        assertEquals(expected, SlowQueryLog.fingerprint("SELECT * FROM users WHERE id IN (1, 2, 3)"));
+        assertEquals(expected, SlowQueryLog.fingerprint("SELECT * FROM users WHERE id IN ('a','b')"));
+    }
+
+    @Test
+    public void multiRowInsertsShareAFingerprint() {
+        String expected = "INSERT INTO users(id,username) VALUES (?+)";
+        assertEquals(expected, SlowQueryLog.fingerprint("INSERT INTO users(id,username) VALUES (?,?)"));
+        assertEquals(expected, SlowQueryLog.fingerprint("INSERT INTO users(id,username) VALUES (?,?),(?,?),(?,?)"));
+    }
+
+    @Test
+    public void singleColumnInsertsShareAFingerprint() {
+        String expected = "INSERT INTO tags(name) VALUES (?+)";
+        assertEquals(expected, SlowQueryLog.fingerprint("INSERT INTO tags(name) VALUES (?)"));
+        assertEquals(expected, SlowQueryLog.fingerprint("INSERT INTO tags(name) VALUES (?), (?), (?)"));
+    }
+
+    @Test
+    public void literalsAndWhitespaceAreNormalized() {
+        assertEquals("SELECT * FROM users WHERE username = ? AND age > ? LIMIT ?,?",
+                SlowQueryLog.fingerprint("SELECT *  FROM users\n WHERE username = 'it''s' AND age > 18 LIMIT ?,?"));
+    }
+
+}
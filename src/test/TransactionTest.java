@@ -0,0 +1,157 @@
+import io.github.balala.Balala;
+import io.github.balala.page.Page;
+import io.github.balala.page.PageRow;
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.ext.sql.ResultSet;
+import io.vertx.ext.sql.SQLClient;
+import io.vertx.ext.sql.SQLConnection;
+import io.vertx.ext.sql.UpdateResult;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ * Runs against a client whose connections record the statements they run, no database needed.
+ *
+ * @author yizmao
+ */
+public class TransactionTest {
+
+    private static final AtomicInteger CONNECTIONS = new AtomicInteger();
+    private static final List<String>  STATEMENTS  = Collections.synchronizedList(new ArrayList<>());
+
+    private static Vertx vertx;
+
+    @BeforeClass
+    public static void before() {
+        vertx = Vertx.vertx();
+        SQLClient client = (SQLClient) Proxy.newProxyInstance(TransactionTest.class.getClassLoader(), new Class[]{SQLClient.class},
+                (proxy, method, args) -> {
+                    if ("getConnection".equals(method.getName())) {
+                        ((Handler<Future<SQLConnection>>) args[0]).handle(Future.succeededFuture(connection(CONNECTIONS.incrementAndGet())));
+                    }
+                    return proxy;
+                });
+        Balala.open(client);
+    }
+
+    @AfterClass
+    public static void after() {
+        vertx.close();
+    }
+
+    @Test
+    public void statementsOutsideTheHandleRunOnTheirOwnConnection() throws Exception {
+        STATEMENTS.clear();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        vertx.runOnContext(v -> {
+            Future<Void> open = Future.future();
+            Future<Void> tx   = Balala.tx(t -> t.select().from(User.class).where("id", 1).all().compose(users -> open));
+            Balala.select().from(User.class).where("username", "jack").all().setHandler(res -> open.complete());
+            tx.setHandler(res -> done.complete(null));
+        });
+        done.get(5, TimeUnit.SECONDS);
+        assertEquals(connectionRunning("commit"), connectionRunning("WHERE id = ?"));
+        assertNotEquals(connectionRunning("commit"), connectionRunning("WHERE username = ?"));
+    }
+
+    @Test
+    public void nestedHandleJoinsAndAnotherTransactionOpensItsOwn() throws Exception {
+        STATEMENTS.clear();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        vertx.runOnContext(v -> {
+            Future<Integer> first  = Balala.tx(t -> t.update().from(User.class).set("username", "a").where("id", 1).update()
+                    .compose(rows -> t.tx(inner -> inner.update().from(User.class).set("username", "b").where("id", 1).update())));
+            Future<Integer> second = Balala.tx(t -> t.update().from(User.class).set("username", "c").where("id", 2).update());
+            CompositeFuture.all(first, second).setHandler(res -> done.complete(null));
+        });
+        done.get(5, TimeUnit.SECONDS);
+        assertEquals(connectionRunning("[\"a\",1]"), connectionRunning("[\"b\",1]"));
+        assertNotEquals(connectionRunning("[\"a\",1]"), connectionRunning("[\"c\",2]"));
+    }
+
+    @Test
+    public void pageRunsTheCountThenTheRowsOnTheTransactionConnection() throws Exception {
+        STATEMENTS.clear();
+        CompletableFuture<Page<User>> done = new CompletableFuture<>();
+        vertx.runOnContext(v -> Balala.tx(t -> t.select().from(User.class).where("username", "jack").findPage(new PageRow(1, 10)))
+                .setHandler(res -> {
+                    if (res.succeeded()) {
+                        done.complete(res.result());
+                    } else {
+                        done.completeExceptionally(res.cause());
+                    }
+                }));
+        Page<User> page = done.get(5, TimeUnit.SECONDS);
+        assertEquals(2, page.getTotalRows());
+        assertEquals(connectionRunning("commit"), connectionRunning("SELECT COUNT(*)"));
+        assertEquals(connectionRunning("commit"), connectionRunning("LIMIT ?,?"));
+    }
+
+    private static String connectionRunning(String fragment) {
+        return STATEMENTS.stream().filter(statement -> statement.contains(fragment)).findFirst().map(TransactionTest::connectionOf).orElse(null);
+    }
+
+    private static String connectionOf(String statement) {
+        return statement.substring(0, statement.indexOf(' '));
+    }
+
+    /**
+     * A connection answering queries asynchronously and, like the async MySQL and PostgreSQL
+     * clients, failing a query sent while another one runs.
+     */
+    private static SQLConnection connection(int id) {
+        AtomicBoolean busy = new AtomicBoolean();
+        return (SQLConnection) Proxy.newProxyInstance(TransactionTest.class.getClassLoader(), new Class[]{SQLConnection.class},
+                (proxy, method, args) -> {
+                    Handler handler = null != args && args[args.length - 1] instanceof Handler ? (Handler) args[args.length - 1] : null;
+                    switch (method.getName()) {
+                        case "queryWithParams":
+                            STATEMENTS.add("conn" + id + " " + args[0] + " " + args[1]);
+                            if (!busy.compareAndSet(false, true)) {
+                                handler.handle(Future.failedFuture("conn" + id + " is running a query"));
+                                break;
+                            }
+                            List<JsonArray> rows = args[0].toString().startsWith("SELECT COUNT(*)")
+                                    ? Collections.singletonList(new JsonArray().add(2)) : new ArrayList<>();
+                            vertx.setTimer(10, timer -> {
+                                busy.set(false);
+                                handler.handle(Future.succeededFuture(new ResultSet(Collections.singletonList("id"), rows, null)));
+                            });
+                            break;
+                        case "updateWithParams":
+                            STATEMENTS.add("conn" + id + " " + args[0] + " " + args[1]);
+                            handler.handle(Future.succeededFuture(new UpdateResult(1, new JsonArray())));
+                            break;
+                        case "setAutoCommit":
+                        case "commit":
+                        case "rollback":
+                            STATEMENTS.add("conn" + id + " " + method.getName());
+                            handler.handle(Future.succeededFuture());
+                            break;
+                        case "close":
+                            break;
+                        default:
+                            return proxy;
+                    }
+                    return proxy;
+                });
+    }
+
+}
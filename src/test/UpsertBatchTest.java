@@ -0,0 +1,110 @@
+import io.github.balala.Balala;
+import io.github.balala.dialect.DB2Dialect;
+import io.github.balala.dialect.Dialect;
+import io.github.balala.dialect.MySQLDialect;
+import io.github.balala.dialect.OracleDialect;
+import io.github.balala.dialect.PostgreSQLDialect;
+import io.github.balala.dialect.SQLiteDialect;
+import io.github.balala.dialect.SqlServerDialect;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.json.JsonArray;
+import io.vertx.ext.sql.SQLClient;
+import io.vertx.ext.sql.SQLConnection;
+import io.vertx.ext.sql.UpdateResult;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Renders the upsert of every dialect on a unique key other than the primary key, against a
+ * client whose connection records the statements, no database needed.
+ *
+ * @author yizmao
+ */
+public class UpsertBatchTest {
+
+    private static final List<String> STATEMENTS = new ArrayList<>();
+
+    private static Balala balala;
+
+    @BeforeClass
+    public static void before() {
+        SQLConnection connection = (SQLConnection) Proxy.newProxyInstance(UpsertBatchTest.class.getClassLoader(), new Class[]{SQLConnection.class},
+                (proxy, method, args) -> {
+                    if ("updateWithParams".equals(method.getName())) {
+                        STATEMENTS.add((String) args[0]);
+                        ((Handler<Future<UpdateResult>>) args[2]).handle(Future.succeededFuture(new UpdateResult(2, new JsonArray())));
+                    }
+                    return proxy;
+                });
+        SQLClient client = (SQLClient) Proxy.newProxyInstance(UpsertBatchTest.class.getClassLoader(), new Class[]{SQLClient.class},
+                (proxy, method, args) -> {
+                    if ("getConnection".equals(method.getName())) {
+                        ((Handler<Future<SQLConnection>>) args[0]).handle(Future.succeededFuture(connection));
+                    }
+                    return proxy;
+                });
+        balala = Balala.open(client);
+    }
+
+    @Test
+    public void mysql() {
+        assertEquals("INSERT INTO users(id,username,password) VALUES (?,?,?),(?,?,?) ON DUPLICATE KEY UPDATE password = VALUES(password)",
+                upsertByUsername(new MySQLDialect()));
+    }
+
+    @Test
+    public void postgresql() {
+        assertEquals("INSERT INTO users(id,username,password) VALUES (?,?,?),(?,?,?) ON CONFLICT (username) DO UPDATE SET password = EXCLUDED.password",
+                upsertByUsername(new PostgreSQLDialect()));
+    }
+
+    @Test
+    public void sqlite() {
+        assertEquals("INSERT INTO users(id,username,password) VALUES (?,?,?),(?,?,?) ON CONFLICT (username) DO UPDATE SET password = excluded.password",
+                upsertByUsername(new SQLiteDialect()));
+    }
+
+    @Test
+    public void oracle() {
+        assertEquals("MERGE INTO users t USING (SELECT ? AS id, ? AS username, ? AS password FROM DUAL UNION ALL SELECT ?,?,? FROM DUAL) s"
+                        + " ON (t.username = s.username) WHEN MATCHED THEN UPDATE SET t.password = s.password"
+                        + " WHEN NOT MATCHED THEN INSERT (id,username,password) VALUES (s.id,s.username,s.password)",
+                upsertByUsername(new OracleDialect()));
+    }
+
+    @Test
+    public void sqlServer() {
+        assertEquals("MERGE INTO users AS t USING (VALUES (?,?,?), (?,?,?)) AS s (id,username,password) ON t.username = s.username"
+                        + " WHEN MATCHED THEN UPDATE SET t.password = s.password"
+                        + " WHEN NOT MATCHED THEN INSERT (id,username,password) VALUES (s.id,s.username,s.password);",
+                upsertByUsername(new SqlServerDialect()));
+    }
+
+    @Test
+    public void db2() {
+        assertEquals("MERGE INTO users AS t USING (VALUES (?,?,?), (?,?,?)) AS s (id,username,password) ON t.username = s.username"
+                        + " WHEN MATCHED THEN UPDATE SET t.password = s.password"
+                        + " WHEN NOT MATCHED THEN INSERT (id,username,password) VALUES (s.id,s.username,s.password)",
+                upsertByUsername(new DB2Dialect()));
+    }
+
+    private static String upsertByUsername(Dialect dialect) {
+        balala.setDialect(dialect);
+        STATEMENTS.clear();
+        Future<?> result = Balala.upsertBatch(Arrays.asList(new User("jack", "a"), new User("rose", "b")),
+                Collections.singletonList("username"), Collections.emptyList());
+        assertEquals(true, result.succeeded());
+        assertEquals(1, STATEMENTS.size());
+        return STATEMENTS.get(0);
+    }
+
+}